@@ -0,0 +1,30 @@
+package com.app.benchmark;
+
+import com.app.action.factory.TestActionFactory;
+import com.app.domain.output.test.TestInfoOutput;
+import com.app.service.impl.TestServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BaseAction.execute() 模板流程的开销，事件工厂直接绑定TestServiceImpl，不启动Spring上下文
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ActionBenchmark {
+
+    @Setup
+    public void setup() {
+        TestActionFactory.bind(new TestServiceImpl());
+    }
+
+    @Benchmark
+    public TestInfoOutput testInfoAction() throws Exception {
+        return TestActionFactory.getTestInfoAction(true).execute();
+    }
+}
@@ -0,0 +1,83 @@
+package com.app.benchmark;
+
+import com.app.filter.RequestFilter;
+import com.app.filter.ResponseFilter;
+import org.openjdk.jmh.annotations.*;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RequestFilter/ResponseFilter 单次调用的开销
+ * 请求上下文用动态代理模拟，只实现过滤器会用到的方法
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FilterBenchmark {
+
+    private final RequestFilter requestFilter = new RequestFilter();
+    private final ResponseFilter responseFilter = new ResponseFilter();
+    private final Map<String, Object> properties = new HashMap<>();
+    private final Map<String, String> headers = new HashMap<>();
+    private ContainerRequestContext requestContext;
+    private ContainerResponseContext responseContext;
+
+    @Setup
+    public void setup() {
+        headers.put("user_id", "10001");
+        headers.put("access_token", "0123456789abcdef0123456789abcdef");
+        UriInfo uriInfo = proxy(UriInfo.class, (name, args) -> "getPath".equals(name) ? "test/info" : null);
+        requestContext = proxy(ContainerRequestContext.class, (name, args) -> {
+            switch (name) {
+                case "getMethod":
+                    return "GET";
+                case "getUriInfo":
+                    return uriInfo;
+                case "getHeaderString":
+                    return headers.get(args[0]);
+                case "getProperty":
+                    return properties.get(args[0]);
+                case "setProperty":
+                    properties.put((String) args[0], args[1]);
+                    return null;
+                case "removeProperty":
+                    properties.remove(args[0]);
+                    return null;
+                default:
+                    return null;
+            }
+        });
+        responseContext = proxy(ContainerResponseContext.class, (name, args) -> "getStatus".equals(name) ? 200 : null);
+    }
+
+    @Benchmark
+    public void requestFilter() throws IOException {
+        requestFilter.filter(requestContext);
+    }
+
+    @Benchmark
+    public void requestAndResponseFilter() throws IOException {
+        requestFilter.filter(requestContext);
+        responseFilter.filter(requestContext, responseContext);
+    }
+
+    interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
@@ -0,0 +1,91 @@
+package com.app.benchmark;
+
+import com.app.AppStart;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内启动完整应用(嵌入式Jetty，随机端口)，通过HTTP请求测量吞吐和延迟分布
+ * 使用HttpURLConnection的keep-alive连接复用
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class HttpBenchmark {
+
+    private static final byte[] HOOK_BODY = "{\"event\":\"push\",\"id\":10001,\"items\":[1,2,3]}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private ConfigurableApplicationContext context;
+    private URL infoUrl;
+    private URL hookUrl;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        context = new SpringApplicationBuilder(AppStart.class)
+                .bannerMode(Banner.Mode.OFF)
+                .properties("server.port=0")
+                .run();
+        int port = ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+        infoUrl = new URL("http://127.0.0.1:" + port + "/test/info?flag=true");
+        hookUrl = new URL("http://127.0.0.1:" + port + "/test/hook");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int info() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) infoUrl.openConnection();
+        return read(connection);
+    }
+
+    @Benchmark
+    public int hook() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) hookUrl.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setFixedLengthStreamingMode(HOOK_BODY.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(HOOK_BODY);
+        }
+        return read(connection);
+    }
+
+    /**
+     * 读完响应体再关闭流，连接才会回到keep-alive缓存
+     */
+    private static int read(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (null != in) {
+            byte[] buffer = new byte[4096];
+            try {
+                while (in.read(buffer) != -1) {
+                    // drain
+                }
+            } finally {
+                in.close();
+            }
+        }
+        return status;
+    }
+}
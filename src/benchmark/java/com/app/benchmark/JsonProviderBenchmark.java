@@ -0,0 +1,67 @@
+package com.app.benchmark;
+
+import com.app.domain.output.test.TestInfoOutput;
+import com.app.library.provide.GsonMessageBodyHandler;
+import org.openjdk.jmh.annotations.*;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GsonMessageBodyHandler 读写耗时，payloadSize 为msg字段的字符数
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonProviderBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    private int payloadSize;
+
+    @Param({GsonMessageBodyHandler.MODE_DEFAULT, GsonMessageBodyHandler.MODE_STREAM})
+    private String mode;
+
+    private GsonMessageBodyHandler handler;
+    private TestInfoOutput output;
+    private byte[] json;
+    private ByteArrayOutputStream out;
+    private MultivaluedMap<String, Object> headers;
+
+    @Setup
+    public void setup() throws IOException {
+        handler = new GsonMessageBodyHandler(mode, GsonMessageBodyHandler.DEFAULT_BUFFER_SIZE);
+        char[] msg = new char[payloadSize];
+        Arrays.fill(msg, 'a');
+        output = new TestInfoOutput(true, new String(msg));
+        out = new ByteArrayOutputStream(payloadSize + 128);
+        headers = new MultivaluedHashMap<>();
+        writeTo();
+        json = out.toByteArray();
+    }
+
+    @Benchmark
+    public int writeTo() throws IOException {
+        out.reset();
+        headers.clear();
+        handler.writeTo(output, TestInfoOutput.class, TestInfoOutput.class, null,
+                MediaType.APPLICATION_JSON_TYPE, headers, out);
+        return out.size();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object readFrom() throws IOException {
+        Class<Object> type = (Class) TestInfoOutput.class;
+        return handler.readFrom(type, type, null, MediaType.APPLICATION_JSON_TYPE, null,
+                new ByteArrayInputStream(json));
+    }
+}
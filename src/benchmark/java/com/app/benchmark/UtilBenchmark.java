@@ -0,0 +1,52 @@
+package com.app.benchmark;
+
+import com.app.config.CommonConfig;
+import com.app.util.CommonUtil;
+import com.app.util.ConfigStore;
+import com.app.util.HashUtil;
+import com.app.util.PropertiesUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通用工具方法的开销
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UtilBenchmark {
+
+    private static final String KEY = "server.jetty.maxthread.size";
+
+    @Param({"0123456789abcdef0123456789abcdef"})
+    private String token;
+
+    @Benchmark
+    public String md5() {
+        return CommonUtil.MD5(token);
+    }
+
+    @Benchmark
+    public String sha256Hex() {
+        return HashUtil.sha256Hex(token);
+    }
+
+    @Benchmark
+    public long hash64() {
+        return HashUtil.hash64(token);
+    }
+
+    @Benchmark
+    public String propertiesGetValue() {
+        return PropertiesUtil.getValue(CommonConfig.SERVER_CONFIG_FILE, KEY);
+    }
+
+    @Benchmark
+    public int configSnapshotGetInt() {
+        return ConfigStore.of(CommonConfig.SERVER_CONFIG_FILE).get().getInt(KEY, 0);
+    }
+}
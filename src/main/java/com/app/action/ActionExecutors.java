@@ -0,0 +1,81 @@
+package com.app.action;
+
+import com.app.config.CommonConfig;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BaseAction异步执行使用的执行器
+ * action.async.executor=bounded 时使用有界线程池，队列满时拒绝；
+ * action.async.executor=virtual 且运行在JDK21及以上时，每个事件一个虚拟线程，
+ * 低版本JDK自动退回有界线程池
+ */
+public final class ActionExecutors {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActionExecutors.class);
+    public static final String BOUNDED = "bounded";
+    public static final String VIRTUAL = "virtual";
+
+    private static final ExecutorService EXECUTOR = create();
+
+    private ActionExecutors() {
+    }
+
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    private static ExecutorService create() {
+        ConfigSnapshot config = ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get();
+        String type = config.getString("action.async.executor", BOUNDED);
+        if (VIRTUAL.equalsIgnoreCase(type)) {
+            ExecutorService virtual = newVirtualThreadExecutor();
+            if (null != virtual) {
+                LOGGER.info("action async executor use virtual threads");
+                return virtual;
+            }
+            LOGGER.warn("virtual threads not supported by current jvm, fall back to bounded executor");
+        }
+        int threads = config.getInt("action.async.threads", 64);
+        int queueSize = config.getInt("action.async.queue.size", 2048);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new NamedThreadFactory("action-async-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        LOGGER.info("action async executor use bounded pool, threads: {}, queue: {}", threads, queueSize);
+        return executor;
+    }
+
+    /**
+     * 代码按Java8编译，通过反射获取JDK21的虚拟线程执行器
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger index = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,46 +1,228 @@
 package com.app.action;
 
+import com.app.domain.HttpStatusCode;
+import com.app.domain.imput.BaseInput;
 import com.app.domain.output.BaseOutput;
 import com.app.exception.AppException;
+import com.app.library.auth.Authenticator;
+import com.app.library.auth.Principal;
+import com.app.library.coalesce.SingleFlight;
+import com.app.library.context.RequestContext;
+import com.app.library.guard.ActionGuard;
+import com.app.library.metrics.ActionMetrics;
+import com.app.library.metrics.ActionMetrics.Stage;
+import com.app.library.sync.SyncEvent;
+import com.app.library.sync.SyncEventPipeline;
+import com.app.library.validate.InputValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
 
 public abstract class BaseAction<T extends BaseOutput> {
     
     private final static Logger logger = LoggerFactory.getLogger(BaseAction.class);
     
     public final T execute() throws Exception {
+        // 舱壁和熔断,拒绝时走降级输出
+        ActionGuard guard = ActionGuard.of(getClass());
+        ActionGuard.Permit permit = null == guard ? null : guard.enter();
+        if (null != permit && permit.isRejected()) {
+            return fallback(guard, permit.getRejection());
+        }
+        long guardBegin = null == guard ? 0 : System.nanoTime();
+        Throwable failure = null;
+        // 各阶段耗时统计,关闭时timers为null
+        ActionMetrics.Timers timers = ActionMetrics.timers(getClass());
+        long begin = ActionMetrics.now(timers);
+        long mark = begin;
         try {
             // 用户参数格式校验
             inputValidate();
-            // 权限校验
+            mark = ActionMetrics.record(timers, Stage.INPUT_VALIDATE, mark);
+            // 身份认证(有缓存)和权限校验
+            authenticate();
             permissionValidate();
+            mark = ActionMetrics.record(timers, Stage.PERMISSION_VALIDATE, mark);
             // 附加验证,外加参数组装
             additionalValidate();
-            // 业务逻辑
-            start();
-            // 格式化输出
-            T res = formatOutput();
-            // 推送 sync 变化
-            logSyncAction();
-            return res;
+            mark = ActionMetrics.record(timers, Stage.ADDITIONAL_VALIDATE, mark);
+            // 幂等事件相同key的并发执行合并为一次,共享输出
+            String key = coalescingKey();
+            SingleFlight flight = null == key ? null : SingleFlight.of(getClass());
+            if (null != flight) {
+                long processBegin = mark;
+                return flight.execute(key, coalescingTimeout(), () -> process(timers, processBegin), this::shareOutput);
+            }
+            return process(timers, mark);
+        } catch (AppException e) {
+            // 业务异常已带有状态码,直接抛出
+            failure = e;
+            throw e;
         } catch (Exception e) {
             /**
              * 这里对事件做统一异常处理,
-             * 接住所有的异常信息并处理
+             * 接住所有的异常信息并处理,保留原异常
              */
-            throw new AppException(e.getMessage());
+            failure = e;
+            throw AppException.wrap(e);
+        } catch (Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            ActionMetrics.record(timers, Stage.TOTAL, begin);
+            if (null != guard) {
+                guard.exit(permit, guardBegin, failure);
+            }
+        }
+    }
+    
+    /**
+     * 业务逻辑、格式化输出和sync推送
+     */
+    private T process(ActionMetrics.Timers timers, long mark) throws Exception {
+        // 业务逻辑
+        start();
+        mark = ActionMetrics.record(timers, Stage.START, mark);
+        // 格式化输出
+        T res = formatOutput();
+        if (null != res && null == res.getUuid()) {
+            res.setUuid(RequestContext.getRequestId());
+        }
+        mark = ActionMetrics.record(timers, Stage.FORMAT_OUTPUT, mark);
+        // 推送 sync 变化
+        logSyncAction();
+        ActionMetrics.record(timers, Stage.LOG_SYNC_ACTION, mark);
+        return res;
+    }
+    
+    /**
+     * follower使用leader输出的浅拷贝，uuid为follower自己的关联ID，与其X-Request-Id一致
+     */
+    @SuppressWarnings("unchecked")
+    private T shareOutput(T output) {
+        T copy = (T) output.copy();
+        copy.setUuid(RequestContext.getRequestId());
+        return copy;
+    }
+    
+    /**
+     * 被舱壁或熔断拒绝时使用fallbackOutput的降级输出,没有降级输出时抛出503
+     */
+    private T fallback(ActionGuard guard, AppException rejection) throws Exception {
+        T res = fallbackOutput(rejection);
+        if (null == res) {
+            throw rejection;
+        }
+        guard.recordFallback();
+        if (null == res.getUuid()) {
+            res.setUuid(RequestContext.getRequestId());
         }
+        return res;
     }
     
+    /**
+     * 在ActionExecutors提供的执行器上异步执行整个事件流程,
+     * 不占用调用方(Jetty工作线程)
+     */
+    public final CompletionStage<T> executeAsync() {
+        // 配置了独立线程池的事件使用自己的线程池,与其他事件隔离
+        ActionGuard guard = ActionGuard.of(getClass());
+        Executor executor = null == guard ? null : guard.getExecutor();
+        return executeAsync(null != executor ? executor : ActionExecutors.getExecutor());
+    }
+    
+    /**
+     * 在指定执行器上异步执行,执行器拒绝时以503结束
+     */
+    public final CompletionStage<T> executeAsync(Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        // 关联ID和凭证随事件传递到执行线程
+        RequestContext.Snapshot context = RequestContext.capture();
+        try {
+            executor.execute(() -> {
+                RequestContext.restore(context);
+                try {
+                    future.complete(execute());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    RequestContext.clear();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Action {} rejected by async executor", getClass().getSimpleName());
+            future.completeExceptionally(AppException.of(HttpStatusCode.SERVICE_UNAVAILABLE, "server is busy"));
+        }
+        return future;
+    }
     
+    
+    /**
+     * 供logSyncAction使用,把sync消息放入后台推送队列,不阻塞当前事件
+     * @return 消息是否被接收,队列满且策略为DROP时返回false
+     */
+    protected final boolean publishSync(String type, Object payload) {
+        return SyncEventPipeline.getInstance().publish(new SyncEvent(getClass().getSimpleName(), type, payload));
+    }
+    
+    /**
+     * 按输入类上的约束注解校验,规则在每个类第一次校验时编译
+     */
     private void inputValidate() throws Exception {
-        
+        BaseInput input = getInput();
+        if (null != input) {
+            processInputException(InputValidator.of(input.getClass()).validate(input));
+        }
     }
     
-    private void processInputException() throws Exception {
-        
+    /**
+     * 有违反项时返回400,collect-all模式下信息包含全部违反项
+     */
+    private void processInputException(List<String> violations) throws Exception {
+        if (!violations.isEmpty()) {
+            throw AppException.of(HttpStatusCode.BAD_REQUEST, String.join("; ", violations));
+        }
+    }
+    
+    /**
+     * 事件的输入参数,返回null时不做输入校验
+     */
+    protected BaseInput getInput() {
+        return null;
+    }
+    
+    /**
+     * 按请求头中的access_token认证,结果缓存在Authenticator中;
+     * 同一请求内已认证(如批量请求中的多个事件)时不再重复
+     */
+    private void authenticate() throws Exception {
+        if (null != RequestContext.getPrincipal() || !requiresAuthentication()) {
+            return;
+        }
+        Authenticator authenticator = Authenticator.getInstance();
+        if (authenticator.isEnabled()) {
+            RequestContext.setPrincipal(authenticator.authenticate(RequestContext.getUserId(), RequestContext.getAccessToken()));
+        }
+    }
+    
+    /**
+     * 是否需要身份认证,匿名可访问的事件返回false;auth.enabled=false时都不认证
+     */
+    protected boolean requiresAuthentication() {
+        return true;
+    }
+    
+    /**
+     * 当前请求认证后的身份,未开启认证或匿名事件时为null
+     */
+    protected final Principal getPrincipal() {
+        return RequestContext.getPrincipal();
     }
     
     /**
@@ -66,7 +248,33 @@ public abstract class BaseAction<T extends BaseOutput> {
     protected abstract T formatOutput() throws Exception;
     
     /**
-     * sync 推送整理sync-log消息到队列，也可Async
+     * sync 推送整理sync-log消息到队列，通过publishSync异步推送
      */
     protected abstract void logSyncAction() throws Exception;
+    
+    /**
+     * 降级输出,熔断打开或超过并发上限时代替整个事件流程
+     * @param reason 拒绝原因
+     * @return null表示没有降级输出,直接返回503
+     */
+    protected T fallbackOutput(AppException reason) throws Exception {
+        return null;
+    }
+    
+    /**
+     * 幂等事件返回合并key,相同key的并发执行只运行一次start/formatOutput/logSyncAction,
+     * logSyncAction每组只推送一次;其余调用得到输出的浅拷贝(uuid为各自的关联ID)和相同的异常;
+     * key需要包含影响结果的全部参数
+     * @return null表示不合并,在additionalValidate之后调用
+     */
+    protected String coalescingKey() {
+        return null;
+    }
+    
+    /**
+     * 等待合并结果的毫秒数,超时后自己执行;小于0时使用配置 coalesce.<事件类名>.timeout
+     */
+    protected long coalescingTimeout() {
+        return -1;
+    }
 }
@@ -0,0 +1,47 @@
+package com.app.action.factory;
+
+import com.app.action.BaseAction;
+import com.google.gson.JsonElement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 请求方法+路径到事件的映射，供批量接口把子请求分发到对应的事件流程
+ * 只有这里登记的接口可以出现在批量请求中
+ */
+public final class ActionRoutes {
+
+    @FunctionalInterface
+    public interface Route {
+        BaseAction<?> create(Map<String, String> params, JsonElement body) throws Exception;
+    }
+
+    private static final Map<String, Route> ROUTES = new HashMap<>();
+
+    static {
+        register("GET", "/test/info", (params, body) -> TestActionFactory.getTestInfoAction(Boolean.parseBoolean(params.get("flag"))));
+    }
+
+    private ActionRoutes() {
+    }
+
+    private static void register(String method, String path, Route route) {
+        ROUTES.put(key(method, path), route);
+    }
+
+    /**
+     * @return 没有登记时返回null
+     */
+    public static Route find(String method, String path) {
+        return ROUTES.get(key(method, path));
+    }
+
+    private static String key(String method, String path) {
+        String normalized = path.startsWith("/") ? path : "/" + path;
+        if (normalized.length() > 1 && normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return (null == method ? "GET" : method.toUpperCase()) + " " + normalized;
+    }
+}
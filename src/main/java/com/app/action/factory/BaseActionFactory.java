@@ -1,4 +1,19 @@
 package com.app.action.factory;
 
+/**
+ * 事件工厂
+ * 子类作为Spring组件在启动时通过构造方法注入依赖的服务，并绑定到静态字段，
+ * 之后创建事件只是一次普通的new，不做任何bean查找
+ */
 public class BaseActionFactory {
+
+    /**
+     * 启动未完成(服务尚未绑定)时创建事件直接报错，而不是在执行中出现空指针
+     */
+    protected static <S> S bound(S service, String name) {
+        if (null == service) {
+            throw new IllegalStateException(name + " is not bound, action factories are bound when the application starts");
+        }
+        return service;
+    }
 }
@@ -1,9 +1,34 @@
 package com.app.action.factory;
 
 import com.app.action.test.TestInfoAction;
+import com.app.domain.imput.test.TestInfoInput;
+import com.app.service.ServiceBeanNames;
+import com.app.service.TestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
 
+@Component
 public class TestActionFactory extends BaseActionFactory {
+    private static volatile TestService testService;
+
+    @Autowired
+    public TestActionFactory(@Qualifier(ServiceBeanNames.TEST_SERVICE) TestService testService) {
+        bind(testService);
+    }
+
+    /**
+     * 绑定依赖的服务，不经过Spring启动时(如基准测试)直接调用
+     */
+    public static void bind(TestService service) {
+        testService = service;
+    }
+
     public static TestInfoAction getTestInfoAction(boolean flag){
-        return new TestInfoAction(flag);
+        return getTestInfoAction(new TestInfoInput(flag));
+    }
+
+    public static TestInfoAction getTestInfoAction(TestInfoInput input){
+        return new TestInfoAction(bound(testService, "TestService"), input);
     }
 }
@@ -3,11 +3,16 @@ package com.app.action.item;
 
 import com.app.action.BaseAction;
 import com.app.domain.output.BaseOutput;
-import com.app.service.BaseService;
-import com.app.service.ServiceBeanNames;
 import com.app.service.TestService;
-import com.app.service.impl.TestServiceImpl;
 
+/**
+ * 依赖的服务由事件工厂在创建时传入，工厂在启动时绑定一次服务，
+ * 创建事件时不再查找Spring上下文
+ */
 public abstract class ItemAction<T extends BaseOutput> extends BaseAction<T> {
-    public static TestService testService = BaseService.getService(ServiceBeanNames.TEST_SERVICE, TestServiceImpl.class);
-}
\ No newline at end of file
+    protected final TestService testService;
+
+    protected ItemAction(TestService testService) {
+        this.testService = testService;
+    }
+}
@@ -1,30 +1,37 @@
 package com.app.action.test;
 
 import com.app.action.item.ItemAction;
+import com.app.domain.imput.BaseInput;
+import com.app.domain.imput.test.TestInfoInput;
 import com.app.domain.output.test.TestInfoOutput;
+import com.app.service.TestService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Objects;
-
 public class TestInfoAction extends ItemAction<TestInfoOutput> {
+    private final TestInfoInput input;
     private boolean flag;
     private static final Logger LOGGER = LoggerFactory.getLogger(TestInfoAction.class);
     private String res;
     
-    public TestInfoAction(boolean flag) {
-        this.flag = flag;
+    public TestInfoAction(TestService testService, TestInfoInput input) {
+        super(testService);
+        this.input = input;
+    }
+    
+    @Override
+    protected BaseInput getInput() {
+        return input;
     }
     
     @Override
     protected void permissionValidate() throws Exception {
-        LOGGER.info("Test action  permission validate is null");
+        LOGGER.debug("Test action permission validate, principal: {}", getPrincipal());
     }
     
     @Override
     protected void additionalValidate() throws Exception {
-        if (Objects.equals(null, flag))
-            flag = false;
+        flag = input.getFlag();
         LOGGER.info("Test action additional validate flag is " + flag);
     
     }
@@ -42,6 +49,14 @@ public class TestInfoAction extends ItemAction<TestInfoOutput> {
     
     @Override
     protected void logSyncAction() throws Exception {
-        LOGGER.info("Test info action log sync success");
+        publishSync("test_info", this.flag);
+    }
+    
+    /**
+     * 输出只取决于flag,并发的相同请求共享一次执行
+     */
+    @Override
+    protected String coalescingKey() {
+        return flag ? "true" : "false";
     }
 }
@@ -11,4 +11,6 @@ import com.app.rest.DefaultRestPackage;
 public class CommonConfig {
     public static final String BASE_PATH = "/";
     public static final String SCAN_REST_PACKAGE = DefaultRestPackage.name;
+    public static final String SERVER_CONFIG_FILE = "jetty-config.properties";
+    public static final String APP_CONFIG_FILE = "app-config.properties";
 }
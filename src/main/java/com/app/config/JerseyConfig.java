@@ -1,50 +1,97 @@
 package com.app.config;
 
 
+import com.app.filter.AdmissionFilter;
+import com.app.filter.LoadShedFilter;
 import com.app.filter.RequestFilter;
 import com.app.filter.ResponseFilter;
+import com.app.library.cache.ResponseCacheFeature;
+import com.app.library.compress.CompressionFilter;
 import com.app.library.handle.RequestExceptionHandler;
+import com.app.library.provide.CborMessageBodyHandler;
 import com.app.library.provide.GsonMessageBodyHandler;
-import org.glassfish.jersey.message.DeflateEncoder;
-import org.glassfish.jersey.message.GZipEncoder;
+import com.app.library.startup.JerseyStartupListener;
+import com.app.rest.RestResources;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.server.ServerProperties;
-import org.glassfish.jersey.server.filter.EncodingFilter;
+import org.glassfish.jersey.servlet.async.AsyncContextDelegateProviderImpl;
+import org.glassfish.jersey.servlet.init.FilterUrlMappingsProviderImpl;
+import org.glassfish.jersey.servlet.spi.AsyncContextDelegateProvider;
+import org.glassfish.jersey.servlet.spi.FilterUrlMappingsProvider;
 import org.springframework.context.annotation.Configuration;
 
+import javax.inject.Singleton;
 import javax.ws.rs.ApplicationPath;
 
 
 @Configuration
 @ApplicationPath(CommonConfig.BASE_PATH)
 public class JerseyConfig extends ResourceConfig {
+
+    private static final ConfigSnapshot config = ConfigStore.of(CommonConfig.SERVER_CONFIG_FILE).get();
+    private static final String jsonMode = config.getString("server.json.mode", GsonMessageBodyHandler.MODE_DEFAULT);
+    private static final int jsonBufferSize = config.getInt("server.json.buffer.size", GsonMessageBodyHandler.DEFAULT_BUFFER_SIZE);
+    private static final boolean scanResources = config.getBoolean("server.jersey.scan", false);
+
     public JerseyConfig() {
         setJerseyComponentsLocation();
+        registerServletSupport();
         registerJerseyFilter();
 		registerExceptionProcessProvode();
         registerJsonProvider();
         registerCompressionEncoder();
+        registerResponseCache();
         registerSwagger();
     }
 
+    /**
+     * 默认按RestResources清单注册资源类，不做classpath扫描；
+     * server.jersey.scan=true 时扫描CommonConfig.SCAN_REST_PACKAGE
+     */
     private void setJerseyComponentsLocation() {
-        packages(CommonConfig.SCAN_REST_PACKAGE);
+        if (scanResources) {
+            packages(CommonConfig.SCAN_REST_PACKAGE);
+        } else {
+            registerClasses(RestResources.classes);
+        }
+        register(JerseyStartupListener.class);
+    }
+    
+    /**
+     * 所有Provider都显式注册，关闭META-INF/services查找；
+     * jersey-container-servlet原本通过META-INF/services提供的异步支持(AsyncResponse)需要显式绑定
+     */
+    private void registerServletSupport() {
+        register(new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(AsyncContextDelegateProviderImpl.class).to(AsyncContextDelegateProvider.class).in(Singleton.class);
+                bind(FilterUrlMappingsProviderImpl.class).to(FilterUrlMappingsProvider.class).in(Singleton.class);
+            }
+        });
+        property(ServerProperties.METAINF_SERVICES_LOOKUP_DISABLE, true);
     }
     
     /**
      * 注册jersey请求响应过滤
      */
     private void registerJerseyFilter() {
+        register(LoadShedFilter.class);
         register(RequestFilter.class);
         register(ResponseFilter.class);
+        register(AdmissionFilter.class);
     }
     
     /**
      * 注册Json处理
+     * server.json.mode=stream 时使用线程复用的缓冲输出，小响应带Content-Length
      */
     private void registerJsonProvider() {
-        register(GsonMessageBodyHandler.class);
-        property(ServerProperties.METAINF_SERVICES_LOOKUP_DISABLE, false);
+        register(new GsonMessageBodyHandler(jsonMode, jsonBufferSize));
+        register(CborMessageBodyHandler.class);
         property(ServerProperties.BV_SEND_ERROR_IN_RESPONSE, true);
         property(ServerProperties.BV_DISABLE_VALIDATE_ON_EXECUTABLE_OVERRIDE_CHECK, true);
     }
@@ -57,10 +104,18 @@ public class JerseyConfig extends ResourceConfig {
     }
 
     /**
-     * 注册Response body压缩时用到的encoder
+     * 注册Response body压缩
+     * 只压缩配置的媒体类型且不小于server.compression.min.size的响应，Deflater池化复用
      */
     private void registerCompressionEncoder() {
-        registerClasses(EncodingFilter.class, GZipEncoder.class, DeflateEncoder.class);
+        register(CompressionFilter.class);
+    }
+
+    /**
+     * 注册响应缓存,对标注@Cacheable的GET接口生效
+     */
+    private void registerResponseCache() {
+        register(ResponseCacheFeature.class);
     }
 
     /**
@@ -1,43 +1,146 @@
 package com.app.config;
 
 
-import com.app.util.PropertiesUtil;
+import com.app.library.server.ServerLoad;
+import com.app.library.server.TimedJobQueue;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.thread.ExecutorThreadPool;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.embedded.jetty.JettyEmbeddedServletContainerFactory;
 import org.springframework.context.annotation.Configuration;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+
+/**
+ * Jetty线程池与连接器配置
+ * server.jetty.pool=queued   QueuedThreadPool，任务队列按server.jetty.queue.size限制长度；
+ * server.jetty.pool=executor ThreadPoolExecutor，启动时预创建最小线程数，同样使用有界队列；
+ * server.jetty.pool=virtual  每个任务一个虚拟线程(JDK21及以上)，低版本退回queued
+ * 队列满时拒绝新任务，排队耗时超过server.jetty.shed.queue.delay时由LoadShedFilter返回503；
+ * virtual模式没有任务队列，不记录排队耗时，按排队耗时拒绝请求不生效
+ */
 @Configuration
 public class JettyConfig extends JettyEmbeddedServletContainerFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JettyConfig.class);
+    public static final String POOL_QUEUED = "queued";
+    public static final String POOL_EXECUTOR = "executor";
+    public static final String POOL_VIRTUAL = "virtual";
 
-    private static PropertiesUtil propertiesUtil = new PropertiesUtil("jetty-config.properties");
-    private static final String maxThread = PropertiesUtil.getValue("server.jetty.maxthread.size");
-    private static final String minThread = PropertiesUtil.getValue("server.jetty.minthread.size");
-    private static final String timout = PropertiesUtil.getValue("server.jetty.timeout");
-    private static final String queueSize = PropertiesUtil.getValue("server.jetty.queue.size");
-    private static QueuedThreadPool threadPool = new QueuedThreadPool();
+    private static final ConfigSnapshot config = ConfigStore.of(CommonConfig.SERVER_CONFIG_FILE).get();
+    private static final String poolType = config.getString("server.jetty.pool", POOL_QUEUED);
+    private static final int maxThread = config.getInt("server.jetty.maxthread.size", 200);
+    private static final int minThread = config.getInt("server.jetty.minthread.size", 8);
+    private static final int timout = config.getInt("server.jetty.timeout", 60000);
+    private static final int queueSize = config.getInt("server.jetty.queue.size", 1024);
+    private static final int acceptors = config.getInt("server.jetty.acceptors", -1);
+    private static final int selectors = config.getInt("server.jetty.selectors", -1);
+    private static final int acceptQueueSize = config.getInt("server.jetty.accept.queue.size", 0);
+    private static final int outputBufferSize = config.getInt("server.jetty.output.buffer.size", 32768);
+    private static final int requestHeaderSize = config.getInt("server.jetty.request.header.size", 8192);
+    private static final int responseHeaderSize = config.getInt("server.jetty.response.header.size", 8192);
+    private static final long shedQueueDelay = config.getLong("server.jetty.shed.queue.delay", 0);
+    private static TimedJobQueue jobQueue;
+    private static ThreadPool threadPool;
 
     public JettyConfig() {
-        setMaxThread();
-        setMinThread();
-        setTimout();
         setQueueSize();
+        createThreadPool();
+        setConnectors();
+        setLoadShedding();
         setThreadPool(threadPool);
     }
 
-    public void setMaxThread() {
-        threadPool.setMaxThreads(Integer.parseInt(maxThread));
+    /**
+     * 有界任务队列，小于等于0时使用默认长度
+     */
+    public void setQueueSize() {
+        jobQueue = new TimedJobQueue(queueSize > 0 ? queueSize : 1024);
     }
 
-    public void setMinThread() {
-        threadPool.setMinThreads(Integer.parseInt(minThread));
+    public void createThreadPool() {
+        if (POOL_VIRTUAL.equalsIgnoreCase(poolType)) {
+            ExecutorService virtual = newVirtualThreadExecutor();
+            if (null != virtual) {
+                threadPool = new ExecutorThreadPool(virtual);
+                ServerLoad.register(threadPool, null);
+                LOGGER.info("jetty thread pool use virtual threads");
+                if (shedQueueDelay > 0) {
+                    LOGGER.warn("server.jetty.shed.queue.delay has no effect with virtual threads, no queue wait is recorded");
+                }
+                return;
+            }
+            LOGGER.warn("virtual threads not supported by current jvm, fall back to queued thread pool");
+        }
+        if (POOL_EXECUTOR.equalsIgnoreCase(poolType)) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThread, maxThread, timout, TimeUnit.MILLISECONDS, jobQueue);
+            executor.allowCoreThreadTimeOut(true);
+            for (int i = 0; i < minThread; i++) {
+                executor.prestartCoreThread();
+            }
+            threadPool = new ExecutorThreadPool(executor);
+            ServerLoad.register(threadPool, jobQueue);
+            ServerLoad.register(executor);
+        } else {
+            QueuedThreadPool queued = new QueuedThreadPool(maxThread, minThread, timout, jobQueue);
+            queued.setName("jetty-qtp");
+            threadPool = queued;
+            ServerLoad.register(threadPool, jobQueue);
+        }
+        LOGGER.info("jetty thread pool: {}, threads: {}-{}, queue: {}", poolType, minThread, maxThread, jobQueue.getMaxCapacity());
     }
 
-    public void setTimout() {
-        threadPool.setIdleTimeout(Integer.parseInt(timout));
+    /**
+     * acceptor/selector数量，小于0时使用Jetty默认值；
+     * 连接器的输出缓冲、请求头、响应头大小和accept队列长度
+     */
+    public void setConnectors() {
+        setAcceptors(acceptors);
+        setSelectors(selectors);
+        addServerCustomizers(this::customizeConnectors);
     }
 
-    public void setQueueSize() {
-        
+    private void customizeConnectors(Server server) {
+        for (Connector connector : server.getConnectors()) {
+            if (connector instanceof ServerConnector && acceptQueueSize > 0) {
+                ((ServerConnector) connector).setAcceptQueueSize(acceptQueueSize);
+            }
+            HttpConnectionFactory factory = connector.getConnectionFactory(HttpConnectionFactory.class);
+            if (null != factory) {
+                HttpConfiguration httpConfiguration = factory.getHttpConfiguration();
+                httpConfiguration.setOutputBufferSize(outputBufferSize);
+                httpConfiguration.setRequestHeaderSize(requestHeaderSize);
+                httpConfiguration.setResponseHeaderSize(responseHeaderSize);
+            }
+        }
+    }
+
+    public void setLoadShedding() {
+        ServerLoad.setShedThreshold(shedQueueDelay);
+    }
+
+    /**
+     * 代码按Java8编译，通过反射获取JDK21的虚拟线程执行器
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,36 @@
 package com.app.domain;
 
 public class HttpStatusCode {
-    public static final String SUCCESS = "200";
-    public static final String SERVER_ERROR = "500";
-    public static final String NOT_FOUND = "404";
-    public static final String NOT_PERMISSION = "203";
+    public static final int SUCCESS = 200;
+    public static final int NOT_PERMISSION = 203;
+    public static final int BAD_REQUEST = 400;
+    public static final int UNAUTHORIZED = 401;
+    public static final int FORBIDDEN = 403;
+    public static final int NOT_FOUND = 404;
+    public static final int PAYLOAD_TOO_LARGE = 413;
+    public static final int TOO_MANY_REQUESTS = 429;
+    public static final int SERVER_ERROR = 500;
+    public static final int SERVICE_UNAVAILABLE = 503;
+
+    private static final String[] CODE_STRINGS = new String[600];
+
+    static {
+        for (int i = 100; i < CODE_STRINGS.length; i++) {
+            CODE_STRINGS[i] = String.valueOf(i);
+        }
+    }
+
+    /**
+     * 状态码的字符串形式，ErrorInfo输出时使用，常用范围内不重复创建字符串
+     */
+    public static String toString(int code) {
+        return code >= 100 && code < CODE_STRINGS.length ? CODE_STRINGS[code] : String.valueOf(code);
+    }
+
+    /**
+     * 判断是否为合法的HTTP状态码
+     */
+    public static boolean isValid(int code) {
+        return code >= 100 && code < CODE_STRINGS.length;
+    }
 }
@@ -1,4 +1,8 @@
 package com.app.domain.imput;
 
+/**
+ * 事件输入参数的基类
+ * 字段上可以声明约束注解，BaseAction在permissionValidate之前按InputValidator校验
+ */
 public class BaseInput {
 }
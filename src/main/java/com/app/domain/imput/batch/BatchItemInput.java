@@ -0,0 +1,53 @@
+package com.app.domain.imput.batch;
+
+import com.app.domain.imput.BaseInput;
+import com.app.library.validate.NotBlank;
+import com.google.gson.JsonElement;
+
+import javax.validation.constraints.Pattern;
+import java.util.Map;
+
+/**
+ * 批量请求中的一项
+ * path可以带查询参数，如 /test/info?flag=true，与params合并；method不传时为GET
+ */
+public class BatchItemInput extends BaseInput {
+    @Pattern(regexp = "(?i)GET|POST|PUT|DELETE")
+    private String method;
+    @NotBlank
+    private String path;
+    private Map<String, String> params;
+    private JsonElement body;
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public void setParams(Map<String, String> params) {
+        this.params = params;
+    }
+
+    public JsonElement getBody() {
+        return body;
+    }
+
+    public void setBody(JsonElement body) {
+        this.body = body;
+    }
+}
@@ -0,0 +1,22 @@
+package com.app.domain.imput.test;
+
+import com.app.domain.imput.BaseInput;
+
+public class TestInfoInput extends BaseInput {
+    private boolean flag;
+
+    public TestInfoInput() {
+    }
+
+    public TestInfoInput(boolean flag) {
+        this.flag = flag;
+    }
+
+    public boolean getFlag() {
+        return flag;
+    }
+
+    public void setFlag(boolean flag) {
+        this.flag = flag;
+    }
+}
@@ -1,9 +1,20 @@
 package com.app.domain.output;
 
-public class BaseOutput {
+public class BaseOutput implements Cloneable {
     public BaseOutput() {
     }
     
+    /**
+     * 浅拷贝，合并执行时每个follower一份，分别设置自己的uuid
+     */
+    public BaseOutput copy() {
+        try {
+            return (BaseOutput) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
     private boolean success = false;
     
     private String uuid;
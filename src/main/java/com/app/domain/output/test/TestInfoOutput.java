@@ -11,4 +11,12 @@ public class TestInfoOutput extends BaseOutput {
         this.msg = msg;
         setSuccess(true);
     }
+    
+    public boolean isFlag() {
+        return flag;
+    }
+    
+    public String getMsg() {
+        return msg;
+    }
 }
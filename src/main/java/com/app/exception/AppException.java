@@ -1,59 +1,128 @@
 package com.app.exception;
 
-import java.util.UUID;
+import com.app.domain.HttpStatusCode;
+import com.app.library.context.RequestContext;
 
+/**
+ * 请求事件异常
+ * 可预期的业务错误(参数错误、无权限、限流等)使用 AppException.of 创建，
+ * 不填充异常栈，创建成本接近普通对象；
+ * 固定不变的错误可以预先创建共享实例(AppException.shared)，共享实例的uuid每次取当前请求的关联ID
+ */
 public class AppException extends RuntimeException {
     /**
-     * 请求事件状态码
+     * 请求事件状态码,未设置时为0,按500处理
      */
-    private String code;
+    private int code;
+    /**
+     * 预先创建的共享实例不保存uuid
+     */
+    private final boolean shared;
     /**
      * 请求事件抛出之后生成的UUID
      * 在全局铺货异常会用到，这个UUID会跟踪整个事件的声明周期
-     * 仅当只有错误发生的时候,这里是默认生成的UUID
+     * 默认取创建时所在请求的关联ID,不在请求中时在第一次读取时生成
      * 支持传入UUID串
      */
-    private String uuid = UUID.randomUUID().toString();
+    private String uuid = RequestContext.getRequestId();
 
     public AppException(String message) {
         super(message);
+        this.shared = false;
     }
 
     public AppException() {
+        this.shared = false;
     }
 
     public AppException(Throwable cause) {
         super(cause);
+        this.shared = false;
     }
 
     public AppException(String message, String uuid) {
         super(message);
         this.uuid = uuid;
+        this.shared = false;
     }
 
-    public AppException(String message, String code, Throwable cause) {
+    public AppException(String message, int code, Throwable cause) {
         super(message, cause);
         this.code = code;
+        this.shared = false;
     }
 
     public AppException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
         super(message, cause, enableSuppression, writableStackTrace);
+        this.shared = false;
+    }
+
+    private AppException(String message, int code, Throwable cause, boolean shared) {
+        super(message, cause, false, false);
+        this.code = code;
+        this.shared = shared;
+        if (shared) {
+            this.uuid = null;
+        }
+    }
+
+    /**
+     * 不带异常栈的业务错误
+     */
+    public static AppException of(int code, String message) {
+        return new AppException(message, code, null, false);
     }
 
-    public String getCode() {
+    /**
+     * 包装其他异常,保留原异常作为cause,自身不再填充异常栈
+     */
+    public static AppException wrap(Throwable cause) {
+        return new AppException(cause.getMessage(), HttpStatusCode.SERVER_ERROR, cause, false);
+    }
+
+    /**
+     * 预先创建可重复抛出的共享实例,用于固定不变的错误
+     */
+    public static AppException shared(int code, String message) {
+        return new AppException(message, code, null, true);
+    }
+
+    /**
+     * 同一个异常交给其他请求时(如合并执行的follower)复制一份，uuid取当前请求的关联ID；
+     * 共享实例本身不保存uuid，直接返回
+     */
+    public AppException copyForCurrentRequest() {
+        if (shared) {
+            return this;
+        }
+        return new AppException(getMessage(), code, getCause(), false);
+    }
+
+    public int getCode() {
         return code;
     }
 
-    public void setCode(String code) {
+    public void setCode(int code) {
         this.code = code;
     }
 
+    public boolean isShared() {
+        return shared;
+    }
 
     public void setUuid(String uuid) {
-        this.uuid = uuid;
+        if (!shared) {
+            this.uuid = uuid;
+        }
     }
 
     public String getUuid() {
+        if (shared) {
+            return RequestContext.getOrCreateRequestId();
+        }
+        if (null == uuid) {
+            uuid = RequestContext.getOrCreateRequestId();
+        }
         return uuid;
     }
 }
@@ -0,0 +1,63 @@
+package com.app.filter;
+
+import com.app.domain.HttpStatusCode;
+import com.app.exception.AppException;
+import com.app.library.admission.AdaptiveLimit;
+import com.app.library.admission.AdmissionControl;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * 准入控制
+ * 先按user_id做令牌桶限流(429)，再按接口(资源类.方法)做自适应并发限制(503)，
+ * 拒绝时抛出共享的AppException，由RequestExceptionHandler输出ErrorInfo；
+ * 排在响应缓存之后，缓存命中的请求不占用并发名额
+ */
+@Provider
+@Priority(Priorities.USER + 200)
+public class AdmissionFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    private static final String PERMIT = "app.admission.permit";
+    private static final String START = "app.admission.start";
+    private static final AppException TOO_MANY_REQUESTS = AppException.shared(HttpStatusCode.TOO_MANY_REQUESTS, "too many requests");
+    private static final AppException OVERLOADED = AppException.shared(HttpStatusCode.SERVICE_UNAVAILABLE, "server is busy");
+
+    private final AdmissionControl admission = AdmissionControl.getInstance();
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!admission.isEnabled() || null == resourceInfo.getResourceMethod()) {
+            return;
+        }
+        if (!admission.tryAcquireRate(requestContext.getHeaderString("user_id"))) {
+            throw TOO_MANY_REQUESTS;
+        }
+        AdaptiveLimit permit = admission.tryAcquire(
+                resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getResourceMethod().getName());
+        if (null == permit) {
+            throw OVERLOADED;
+        }
+        requestContext.setProperty(PERMIT, permit);
+        requestContext.setProperty(START, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object permit = requestContext.getProperty(PERMIT);
+        if (null == permit) {
+            return;
+        }
+        requestContext.removeProperty(PERMIT);
+        long latency = System.nanoTime() - (Long) requestContext.getProperty(START);
+        ((AdaptiveLimit) permit).release(latency, responseContext.getStatus() >= HttpStatusCode.SERVER_ERROR);
+    }
+}
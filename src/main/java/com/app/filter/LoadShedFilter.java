@@ -0,0 +1,41 @@
+package com.app.filter;
+
+import com.app.domain.HttpStatusCode;
+import com.app.exception.AppException;
+import com.app.library.context.RequestContext;
+import com.app.library.server.ServerLoad;
+
+import javax.annotation.Priority;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Jetty任务排队耗时超过阈值时，在匹配资源之前直接返回503，
+ * 避免过载时请求继续堆积、延迟无限增长
+ * 作为第一个过滤器同时清理线程上残留的请求上下文：异步请求的上下文在恢复线程上清理，
+ * 挂起它的Jetty线程上仍保留着旧的关联ID；
+ * /metrics 不拒绝，过载时仍然可以观察
+ */
+@Provider
+@PreMatching
+@Priority(100)
+public class LoadShedFilter implements ContainerRequestFilter {
+    private static final AppException OVERLOADED = AppException.shared(HttpStatusCode.SERVICE_UNAVAILABLE, "server is busy");
+    private static final String METRICS_PATH = "metrics";
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        RequestContext.clear();
+        if (!isMetrics(requestContext.getUriInfo().getPath()) && ServerLoad.shouldShed()) {
+            String requestId = RequestContext.begin(requestContext.getHeaderString(RequestContext.REQUEST_ID_HEADER));
+            requestContext.setProperty(RequestContext.REQUEST_ID_PROPERTY, requestId);
+            throw OVERLOADED;
+        }
+    }
+
+    private static boolean isMetrics(String path) {
+        return path.startsWith(METRICS_PATH) || path.startsWith("/" + METRICS_PATH);
+    }
+}
@@ -1,5 +1,6 @@
 package com.app.filter;
 
+import com.app.library.context.RequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,14 +14,23 @@ import java.io.IOException;
 @Provider
 public class RequestFilter implements ContainerRequestFilter {
     private static final Logger LOGGER = LoggerFactory.getLogger(RequestFilter.class);
+    /**
+     * 请求开始时间(纳秒)，由ResponseFilter计算耗时并写访问日志
+     */
+    public static final String START_NANOS = "app.request.start";
     @Autowired
     private HttpServletRequest httpServletRequest;
     public void filter(ContainerRequestContext requestContext) throws IOException {
-        String method = requestContext.getMethod();
-        String path = requestContext.getUriInfo().getPath();
-        String userId = requestContext.getHeaderString("user_id");
-        String accessToken = requestContext.getHeaderString("access_token");
-        String filterInfo = "Request filter params: [path: %s], [method:  %s], [user_id: %s], [access_token: %s]";
-        LOGGER.info(String.format(filterInfo, path, method, userId, accessToken));
+        requestContext.setProperty(START_NANOS, System.nanoTime());
+        String requestId = RequestContext.begin(requestContext.getHeaderString(RequestContext.REQUEST_ID_HEADER));
+        requestContext.setProperty(RequestContext.REQUEST_ID_PROPERTY, requestId);
+        // 凭证只在这里读取,认证延迟到事件的权限校验阶段
+        RequestContext.setCredentials(requestContext.getHeaderString(RequestContext.USER_ID_HEADER),
+                requestContext.getHeaderString(RequestContext.ACCESS_TOKEN_HEADER));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Request filter params: [path: {}], [method: {}], [user_id: {}], [request_id: {}]",
+                    requestContext.getUriInfo().getPath(), requestContext.getMethod(),
+                    RequestContext.getUserId(), requestId);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,34 @@
 package com.app.filter;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.app.library.accesslog.AccessLog;
+import com.app.library.context.RequestContext;
 
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.ext.Provider;
 
+/**
+ * 请求结束时把请求信息、状态码和耗时合并为一条访问日志，异步输出
+ */
 @Provider
 public class ResponseFilter implements ContainerResponseFilter {
-    private static final Logger LOGGER = LoggerFactory.getLogger(ResponseFilter.class);
 
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
-        if (responseContext.getStatus() == 200)
-            LOGGER.info("Response filter response success status code is :" + responseContext.getStatus());
-        else
-            LOGGER.error("Response filter response error code is :" + responseContext.getStatus());
+        Object start = requestContext.getProperty(RequestFilter.START_NANOS);
+        long latency = start instanceof Long ? System.nanoTime() - (Long) start : 0;
+        String requestId = (String) requestContext.getProperty(RequestContext.REQUEST_ID_PROPERTY);
+        if (null != requestId) {
+            responseContext.getHeaders().putSingle(RequestContext.REQUEST_ID_HEADER, requestId);
+        }
+        AccessLog.getInstance().log(requestId,
+                requestContext.getMethod(),
+                requestContext.getUriInfo().getPath(),
+                requestContext.getHeaderString("user_id"),
+                requestContext.getHeaderString("access_token"),
+                responseContext.getStatus(),
+                latency);
+        RequestContext.clear();
     }
-}
\ No newline at end of file
+}
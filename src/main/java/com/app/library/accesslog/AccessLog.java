@@ -0,0 +1,148 @@
+package com.app.library.accesslog;
+
+import com.app.config.CommonConfig;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步访问日志
+ * 请求结束时由ResponseFilter写入一条记录(请求信息+状态码+耗时)，
+ * 记录进入预分配的有界环形队列，后台线程格式化并输出到名为ACCESS的logger，
+ * 队列满时丢弃并计数。2xx响应可按 accesslog.sample.success 采样，错误响应全部记录，
+ * access_token 只输出前几位。
+ */
+public final class AccessLog {
+    private static final Logger ACCESS = LoggerFactory.getLogger("ACCESS");
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessLog.class);
+    private static final AccessLog INSTANCE = new AccessLog(ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get());
+    private static final int TOKEN_VISIBLE = 4;
+
+    private final boolean enabled;
+    private final double successSampleRate;
+    private final boolean redact;
+    private final int mask;
+    private final AccessLogRecord[] records;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+    private final LongAdder dropped = MetricsRegistry.counter("accesslog.dropped");
+    private final LongAdder sampledOut = MetricsRegistry.counter("accesslog.sampledOut");
+
+    private AccessLog(ConfigSnapshot config) {
+        this.enabled = config.getBoolean("accesslog.enabled", true);
+        this.successSampleRate = config.getDouble("accesslog.sample.success", 1.0);
+        this.redact = config.getBoolean("accesslog.redact", true);
+        int capacity = Integer.highestOneBit(Math.max(2, config.getInt("accesslog.queue.size", 4096) - 1)) << 1;
+        this.mask = capacity - 1;
+        this.records = new AccessLogRecord[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            records[i] = new AccessLogRecord();
+            sequences.set(i, i);
+        }
+        if (enabled) {
+            Thread worker = new Thread(this::drainLoop, "access-log");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    public static AccessLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 记录一次请求，不做任何字符串格式化
+     */
+    public void log(String requestId, String method, String path, String userId, String accessToken, int status, long latencyNanos) {
+        if (!enabled) {
+            return;
+        }
+        if (status >= 200 && status < 300 && successSampleRate < 1.0
+                && ThreadLocalRandom.current().nextDouble() >= successSampleRate) {
+            sampledOut.increment();
+            return;
+        }
+        while (true) {
+            long pos = tail.get();
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    AccessLogRecord record = records[index];
+                    record.timestamp = System.currentTimeMillis();
+                    record.requestId = requestId;
+                    record.method = method;
+                    record.path = path;
+                    record.userId = userId;
+                    record.accessToken = accessToken;
+                    record.status = status;
+                    record.latencyNanos = latencyNanos;
+                    sequences.lazySet(index, pos + 1);
+                    return;
+                }
+            } else if (diff < 0) {
+                dropped.increment();
+                return;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            AccessLogRecord record = records[index];
+            try {
+                if (ACCESS.isInfoEnabled()) {
+                    line.setLength(0);
+                    format(record, line);
+                    ACCESS.info(line.toString());
+                }
+            } catch (Exception e) {
+                LOGGER.error("write access log error", e);
+            } finally {
+                record.clear();
+                sequences.lazySet(index, head + mask + 1);
+                head++;
+            }
+        }
+    }
+
+    private void format(AccessLogRecord record, StringBuilder line) {
+        line.append(record.requestId).append(' ')
+                .append(record.method).append(' ')
+                .append(record.path).append(' ')
+                .append(record.status).append(' ')
+                .append(TimeUnit.NANOSECONDS.toMicros(record.latencyNanos)).append("us")
+                .append(" user_id=").append(record.userId)
+                .append(" access_token=");
+        appendToken(record.accessToken, line);
+    }
+
+    private void appendToken(String token, StringBuilder line) {
+        if (null == token || !redact) {
+            line.append(token);
+            return;
+        }
+        if (token.length() <= TOKEN_VISIBLE) {
+            line.append("****");
+            return;
+        }
+        line.append(token, 0, TOKEN_VISIBLE).append("****");
+    }
+}
@@ -0,0 +1,24 @@
+package com.app.library.accesslog;
+
+/**
+ * 一次请求的访问日志，槽位预先分配并循环使用
+ * 请求线程只做字段引用的赋值，格式化在日志线程中完成
+ */
+final class AccessLogRecord {
+    long timestamp;
+    String requestId;
+    String method;
+    String path;
+    String userId;
+    String accessToken;
+    int status;
+    long latencyNanos;
+
+    void clear() {
+        requestId = null;
+        method = null;
+        path = null;
+        userId = null;
+        accessToken = null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.app.library.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按延迟梯度自适应的并发上限
+ * 维护两个延迟的指数滑动平均：短期(最近约8个样本)和长期基线(最近约256个样本)，
+ * 梯度 = 基线 * tolerance / 短期延迟，小于1表示延迟明显上升；
+ * 并发不到上限一半时上限不受限制，不做调整(避免低负载下的抖动把上限压低)；
+ * 并发接近上限(90%以上)且梯度小于1或失败时上限乘以backoff，
+ * 并发达到上限一半以上且梯度不小于1时上限加1；全部为CAS操作，不加锁
+ */
+public final class AdaptiveLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoff;
+    private final AtomicInteger limit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    /**
+     * 短期延迟和长期基线，纳秒，并发更新时允许丢失个别样本
+     */
+    private volatile long shortLatency;
+    private volatile long longLatency;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoff) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    boolean tryAcquire() {
+        for (;;) {
+            int current = inflight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 请求结束时调用，根据延迟和结果调整上限
+     */
+    public void release(long latencyNanos, boolean failure) {
+        int current = inflight.getAndDecrement();
+        long shortValue = shortLatency;
+        long longValue = longLatency;
+        if (0 == longValue) {
+            shortValue = latencyNanos;
+            longValue = latencyNanos;
+        } else {
+            shortValue += (latencyNanos - shortValue) >> 3;
+            longValue += (latencyNanos - longValue) >> 8;
+        }
+        shortLatency = shortValue;
+        longLatency = longValue;
+        int value = limit.get();
+        if (current * 2 < value) {
+            return;
+        }
+        boolean rising = longValue * tolerance < shortValue;
+        if ((failure || rising) && current * 10 >= value * 9) {
+            int next = Math.max(minLimit, (int) (value * backoff));
+            if (next < value) {
+                limit.compareAndSet(value, next);
+            }
+        } else if (!failure && !rising && value < maxLimit) {
+            limit.compareAndSet(value, value + 1);
+        }
+    }
+
+    /**
+     * 短期延迟，纳秒
+     */
+    public long getShortLatency() {
+        return shortLatency;
+    }
+
+    /**
+     * 长期延迟基线，纳秒
+     */
+    public long getLongLatency() {
+        return longLatency;
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
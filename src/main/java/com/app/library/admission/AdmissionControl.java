@@ -0,0 +1,97 @@
+package com.app.library.admission;
+
+import com.app.config.CommonConfig;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 准入控制：每个接口一个自适应并发上限，可选按user_id的令牌桶限流
+ * 配置(app-config.properties)：
+ * admission.enabled, admission.limit.initial/min/max, admission.limit.tolerance/backoff,
+ * admission.rate.enabled, admission.rate.permits(每秒), admission.rate.burst, admission.rate.max.users
+ */
+public final class AdmissionControl {
+    private static final AdmissionControl INSTANCE = new AdmissionControl(ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get());
+
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoff;
+    private final RateLimiter rateLimiter;
+    private final ConcurrentMap<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+    private final LongAdder limited = MetricsRegistry.counter("admission.limited");
+    private final LongAdder throttled = MetricsRegistry.counter("admission.throttled");
+
+    private AdmissionControl(ConfigSnapshot config) {
+        this.enabled = config.getBoolean("admission.enabled", false);
+        this.initialLimit = config.getInt("admission.limit.initial", 100);
+        this.minLimit = config.getInt("admission.limit.min", 10);
+        this.maxLimit = config.getInt("admission.limit.max", 1000);
+        this.tolerance = config.getDouble("admission.limit.tolerance", 2.0);
+        this.backoff = config.getDouble("admission.limit.backoff", 0.9);
+        this.rateLimiter = config.getBoolean("admission.rate.enabled", false)
+                ? new RateLimiter(config.getDouble("admission.rate.permits", 50),
+                config.getInt("admission.rate.burst", 100),
+                config.getInt("admission.rate.max.users", 100000))
+                : null;
+        if (null != rateLimiter) {
+            MetricsRegistry.gauge("admission.rate.users", rateLimiter::size);
+        }
+    }
+
+    public static AdmissionControl getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 令牌桶限流，没有user_id或未开启时放行
+     */
+    public boolean tryAcquireRate(String userId) {
+        if (null == rateLimiter || null == userId) {
+            return true;
+        }
+        if (rateLimiter.tryAcquire(userId, System.nanoTime())) {
+            return true;
+        }
+        throttled.increment();
+        return false;
+    }
+
+    /**
+     * 获取接口的并发名额
+     * @return 成功时返回需要在请求结束时release的limit，超过上限时返回null
+     */
+    public AdaptiveLimit tryAcquire(String endpoint) {
+        AdaptiveLimit limit = limits.get(endpoint);
+        if (null == limit) {
+            limit = limits.computeIfAbsent(endpoint, this::newLimit);
+        }
+        if (limit.tryAcquire()) {
+            return limit;
+        }
+        limited.increment();
+        return null;
+    }
+
+    private AdaptiveLimit newLimit(String endpoint) {
+        AdaptiveLimit limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit, tolerance, backoff);
+        MetricsRegistry.gauge("admission." + endpoint + ".limit", limit::getLimit);
+        MetricsRegistry.gauge("admission." + endpoint + ".inflight", limit::getInflight);
+        // 延迟单位为微秒，用于调整tolerance
+        MetricsRegistry.gauge("admission." + endpoint + ".latency.short", () -> TimeUnit.NANOSECONDS.toMicros(limit.getShortLatency()));
+        MetricsRegistry.gauge("admission." + endpoint + ".latency.long", () -> TimeUnit.NANOSECONDS.toMicros(limit.getLongLatency()));
+        return limit;
+    }
+}
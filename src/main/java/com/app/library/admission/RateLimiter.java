@@ -0,0 +1,113 @@
+package com.app.library.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按key(user_id)的令牌桶限流，使用GCRA算法：
+ * 每个key只保存一个"理论到达时间"，一次CAS完成取令牌，不加锁；
+ * key数量是硬上限maxKeys：满了之后新key先尝试清理已经回满的桶(每EVICT_INTERVAL最多扫描一次)，
+ * 仍然没有空位时共用一个溢出桶。user_id由客户端提供，轮换key不能绕过限流，也不能让内存无限增长
+ */
+final class RateLimiter {
+    private static final long EVICT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final long interval;
+    private final long tolerance;
+    private final int maxKeys;
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    /**
+     * 已占用的名额，先占名额再插入，并发插入时map也不会超过上限
+     */
+    private final AtomicInteger slots = new AtomicInteger();
+    /**
+     * 初始值表示桶是满的
+     */
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong nextEviction = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @param burst            桶容量
+     */
+    RateLimiter(double permitsPerSecond, int burst, int maxKeys) {
+        this.interval = (long) (1_000_000_000L / permitsPerSecond);
+        this.tolerance = interval * Math.max(0, burst - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    boolean tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (null == bucket) {
+            bucket = bucket(key, nowNanos);
+        }
+        for (;;) {
+            long tat = bucket.get();
+            long start = Math.max(tat, nowNanos);
+            if (start - nowNanos > tolerance) {
+                return false;
+            }
+            if (bucket.compareAndSet(tat, start + interval)) {
+                return true;
+            }
+        }
+    }
+
+    private AtomicLong bucket(String key, long nowNanos) {
+        if (!reserve()) {
+            evictIdle(nowNanos);
+            if (!reserve()) {
+                return overflow;
+            }
+        }
+        AtomicLong created = new AtomicLong(nowNanos);
+        AtomicLong existing = buckets.putIfAbsent(key, created);
+        if (null != existing) {
+            slots.decrementAndGet();
+            return existing;
+        }
+        return created;
+    }
+
+    private boolean reserve() {
+        for (;;) {
+            int used = slots.get();
+            if (used >= maxKeys) {
+                return false;
+            }
+            if (slots.compareAndSet(used, used + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 只有一个线程能拿到本轮的清理机会，其余线程直接使用溢出桶
+     */
+    private void evictIdle(long nowNanos) {
+        long next = nextEviction.get();
+        if (next != Long.MIN_VALUE && nowNanos - next < 0) {
+            return;
+        }
+        if (!nextEviction.compareAndSet(next, nowNanos + EVICT_INTERVAL)) {
+            return;
+        }
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            if (entry.getValue().get() <= nowNanos && buckets.remove(entry.getKey(), entry.getValue())) {
+                slots.decrementAndGet();
+            }
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    boolean contains(String key) {
+        return buckets.containsKey(key);
+    }
+}
@@ -0,0 +1,172 @@
+package com.app.library.auth;
+
+import com.app.config.CommonConfig;
+import com.app.domain.HttpStatusCode;
+import com.app.exception.AppException;
+import com.app.library.coalesce.SingleFlight;
+import com.app.library.metrics.LatencyHistogram;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import com.app.util.HashUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 共享的身份认证
+ * access_token经TokenVerifier校验后按token的SHA-256缓存，有效期auth.cache.ttl；
+ * 无效token同样缓存auth.cache.negative.ttl，避免重复打到认证服务；
+ * 缓存条数超过auth.cache.max时先清理过期条目，仍然超出则随机淘汰一部分；
+ * 同一token并发未命中时只校验一次(SingleFlight)
+ * 配置(app-config.properties)：auth.enabled, auth.verifier(local/remote/类名), auth.cache.*
+ */
+public final class Authenticator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Authenticator.class);
+    private static final AppException MISSING_TOKEN = AppException.shared(HttpStatusCode.UNAUTHORIZED, "access token required");
+    private static final AppException INVALID_TOKEN = AppException.shared(HttpStatusCode.UNAUTHORIZED, "invalid access token");
+    private static final AppException UNAVAILABLE = AppException.shared(HttpStatusCode.SERVICE_UNAVAILABLE, "auth service unavailable");
+    private static volatile Authenticator instance;
+
+    private final boolean enabled;
+    private final long ttl;
+    private final long negativeTtl;
+    private final int maxEntries;
+    private final long verifyTimeout;
+    private volatile TokenVerifier verifier;
+    private final ConcurrentMap<String, CachedPrincipal> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = MetricsRegistry.counter("auth.cache.hit");
+    private final LongAdder misses = MetricsRegistry.counter("auth.cache.miss");
+    private final LongAdder rejected = MetricsRegistry.counter("auth.rejected");
+    private final LatencyHistogram verifyLatency = MetricsRegistry.histogram("auth.verify");
+
+    private Authenticator(ConfigSnapshot config) {
+        this.enabled = config.getBoolean("auth.enabled", false);
+        this.ttl = config.getLong("auth.cache.ttl", 60000);
+        this.negativeTtl = config.getLong("auth.cache.negative.ttl", 5000);
+        this.maxEntries = config.getInt("auth.cache.max", 100000);
+        this.verifyTimeout = config.getLong("auth.verify.timeout", 3000);
+        this.verifier = createVerifier(config);
+        MetricsRegistry.gauge("auth.cache.size", cache::size);
+    }
+
+    public static Authenticator getInstance() {
+        Authenticator authenticator = instance;
+        if (null == authenticator) {
+            synchronized (Authenticator.class) {
+                authenticator = instance;
+                if (null == authenticator) {
+                    authenticator = new Authenticator(ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get());
+                    instance = authenticator;
+                }
+            }
+        }
+        return authenticator;
+    }
+
+    private static TokenVerifier createVerifier(ConfigSnapshot config) {
+        String type = config.getString("auth.verifier", "local");
+        if ("local".equalsIgnoreCase(type)) {
+            return new LocalTokenVerifier(config);
+        }
+        if ("remote".equalsIgnoreCase(type)) {
+            return new RemoteTokenVerifier(config);
+        }
+        try {
+            return (TokenVerifier) Class.forName(type).newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("create token verifier '" + type + "' error", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 替换token校验实现，同时清空缓存
+     */
+    public void setVerifier(TokenVerifier verifier) {
+        this.verifier = verifier;
+        cache.clear();
+    }
+
+    /**
+     * @param userId 请求头中的user_id，不为空时必须与token对应的用户一致
+     * @throws AppException 缺少或无效的token返回401，认证服务不可用返回503
+     */
+    public Principal authenticate(String userId, String accessToken) throws Exception {
+        if (null == accessToken || accessToken.isEmpty()) {
+            rejected.increment();
+            throw MISSING_TOKEN;
+        }
+        String key = HashUtil.sha256Hex(accessToken);
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = cache.get(key);
+        if (null != cached && cached.expiresAt > now) {
+            hits.increment();
+        } else {
+            misses.increment();
+            SingleFlight flight = SingleFlight.of(Authenticator.class);
+            cached = null == flight ? verify(key, accessToken) : flight.execute(key, verifyTimeout, () -> verify(key, accessToken));
+        }
+        Principal principal = cached.principal;
+        if (null == principal || (null != userId && !userId.equals(principal.getUserId()))) {
+            rejected.increment();
+            throw INVALID_TOKEN;
+        }
+        return principal;
+    }
+
+    private CachedPrincipal verify(String key, String accessToken) {
+        long begin = System.nanoTime();
+        Principal principal;
+        try {
+            principal = verifier.verify(accessToken);
+        } catch (Exception e) {
+            LOGGER.warn("verify access token error", e);
+            throw UNAVAILABLE;
+        } finally {
+            verifyLatency.record(System.nanoTime() - begin);
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + (null == principal ? negativeTtl : ttl);
+        if (null != principal && principal.getExpiresAt() > 0) {
+            expiresAt = Math.min(expiresAt, principal.getExpiresAt());
+        }
+        CachedPrincipal entry = new CachedPrincipal(principal, expiresAt);
+        if (expiresAt > now) {
+            if (cache.size() >= maxEntries) {
+                evict(now);
+            }
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * 先清理过期条目，仍然超过上限时淘汰约1/8
+     */
+    private void evict(long now) {
+        cache.values().removeIf(entry -> entry.expiresAt <= now);
+        int excess = cache.size() - maxEntries + maxEntries / 8;
+        for (Iterator<String> it = cache.keySet().iterator(); excess > 0 && it.hasNext(); excess--) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static final class CachedPrincipal {
+        private final Principal principal;
+        private final long expiresAt;
+
+        private CachedPrincipal(Principal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
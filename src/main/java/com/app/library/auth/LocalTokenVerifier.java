@@ -0,0 +1,33 @@
+package com.app.library.auth;
+
+import com.app.util.ConfigSnapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * 本地token校验，开发和测试时代替认证服务
+ * auth.local.tokens=token:user_id[:role|role],...
+ */
+public final class LocalTokenVerifier implements TokenVerifier {
+    private final Map<String, Principal> principals = new HashMap<>();
+
+    public LocalTokenVerifier(ConfigSnapshot config) {
+        String tokens = config.getString("auth.local.tokens", "");
+        for (String entry : tokens.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length < 2 || parts[0].isEmpty()) {
+                continue;
+            }
+            principals.put(parts[0], new Principal(parts[1],
+                    parts.length > 2 ? new HashSet<>(Arrays.asList(parts[2].split("\\|"))) : null, 0));
+        }
+    }
+
+    @Override
+    public Principal verify(String accessToken) {
+        return principals.get(accessToken);
+    }
+}
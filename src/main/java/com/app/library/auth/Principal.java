@@ -0,0 +1,45 @@
+package com.app.library.auth;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 认证后的用户身份
+ */
+public final class Principal {
+    private final String userId;
+    private final Set<String> roles;
+    private final long expiresAt;
+
+    /**
+     * @param expiresAt 凭证过期的毫秒时间戳，小于等于0表示不限制
+     */
+    public Principal(String userId, Set<String> roles, long expiresAt) {
+        this.userId = userId;
+        this.roles = null == roles || roles.isEmpty() ? Collections.<String>emptySet()
+                : Collections.unmodifiableSet(new HashSet<>(roles));
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    @Override
+    public String toString() {
+        return "Principal{userId=" + userId + ", roles=" + roles + "}";
+    }
+}
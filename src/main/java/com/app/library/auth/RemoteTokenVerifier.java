@@ -0,0 +1,44 @@
+package com.app.library.auth;
+
+import com.app.domain.HttpStatusCode;
+import com.app.library.client.OutboundClient;
+import com.app.library.client.OutboundResponse;
+import com.app.util.ConfigSnapshot;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 通过OutboundClient调用认证服务校验token
+ * GET {auth.remote.path}，token放在 Authorization: Bearer 请求头中，不出现在URL和访问日志里，200返回 {"userId":..,"roles":[..],"expiresAt":..}，401/403表示无效
+ */
+public final class RemoteTokenVerifier implements TokenVerifier {
+    private final OutboundClient client;
+    private final String path;
+
+    public RemoteTokenVerifier(ConfigSnapshot config) {
+        this.client = OutboundClient.of(config.getString("auth.remote.service", "auth"));
+        this.path = config.getString("auth.remote.path", "/token/verify");
+    }
+
+    @Override
+    public Principal verify(String accessToken) throws Exception {
+        OutboundResponse response = client.get(path,
+                Collections.singletonMap(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken));
+        if (response.getStatus() == HttpStatusCode.UNAUTHORIZED || response.getStatus() == HttpStatusCode.FORBIDDEN) {
+            return null;
+        }
+        if (!response.isSuccess()) {
+            throw new IllegalStateException("auth service returned " + response.getStatus());
+        }
+        VerifyResult result = response.as(VerifyResult.class);
+        return null == result || null == result.userId ? null : new Principal(result.userId, result.roles, result.expiresAt);
+    }
+
+    private static final class VerifyResult {
+        private String userId;
+        private Set<String> roles;
+        private long expiresAt;
+    }
+}
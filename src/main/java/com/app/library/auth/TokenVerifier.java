@@ -0,0 +1,11 @@
+package com.app.library.auth;
+
+/**
+ * access_token校验，由Authenticator在缓存未命中时调用
+ */
+public interface TokenVerifier {
+    /**
+     * @return token无效时返回null(会被短时间缓存)；校验服务不可用时抛出异常(不缓存)
+     */
+    Principal verify(String accessToken) throws Exception;
+}
@@ -0,0 +1,156 @@
+package com.app.library.batch;
+
+import com.app.action.BaseAction;
+import com.app.action.factory.ActionRoutes;
+import com.app.config.CommonConfig;
+import com.app.domain.HttpStatusCode;
+import com.app.domain.imput.batch.BatchItemInput;
+import com.app.exception.AppException;
+import com.app.exception.ErrorInfo;
+import com.app.library.handle.RequestExceptionHandler;
+import com.app.library.provide.GsonMessageBodyHandler;
+import com.app.library.validate.InputValidator;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 批量请求分发
+ * 每个子请求按ActionRoutes找到对应的事件并执行完整的事件流程，
+ * parallel=true 时通过BaseAction.executeAsync在有界执行器上并行执行，整个批量共用一个截止时间；
+ * 结果按请求顺序逐项写出为Json数组，成功为事件输出，失败为ErrorInfo
+ */
+public final class BatchDispatcher {
+    private static final ConfigSnapshot config = ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get();
+    private static final int MAX_ITEMS = config.getInt("batch.max.items", 50);
+    private static final long TIMEOUT = config.getLong("batch.timeout", config.getLong("action.async.timeout", 30000));
+
+    private BatchDispatcher() {
+    }
+
+    /**
+     * 在请求线程内执行完全部子请求(并行时等待到整个批量的截止时间)再返回，
+     * 执行期间仍占用准入名额，访问日志的耗时包含子请求；返回的StreamingOutput只做序列化
+     */
+    public static StreamingOutput dispatch(List<BatchItemInput> items, boolean parallel) {
+        if (null == items || items.isEmpty()) {
+            throw AppException.of(HttpStatusCode.BAD_REQUEST, "batch items is empty");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw AppException.of(HttpStatusCode.BAD_REQUEST, "batch items exceed " + MAX_ITEMS);
+        }
+        List<Object> results = new ArrayList<>(items.size());
+        if (parallel) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+            List<CompletableFuture<Object>> futures = new ArrayList<>(items.size());
+            for (BatchItemInput item : items) {
+                futures.add(submit(item));
+            }
+            for (CompletableFuture<Object> future : futures) {
+                results.add(await(future, deadline));
+            }
+        } else {
+            for (BatchItemInput item : items) {
+                results.add(execute(item));
+            }
+        }
+        return output -> {
+            Gson gson = GsonMessageBodyHandler.getGson();
+            JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            writer.beginArray();
+            for (Object result : results) {
+                gson.toJson(result, result.getClass(), writer);
+            }
+            writer.endArray();
+            writer.flush();
+        };
+    }
+
+    private static Object execute(BatchItemInput item) {
+        try {
+            return create(item).execute();
+        } catch (Exception e) {
+            return RequestExceptionHandler.toErrorInfo(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Object> submit(BatchItemInput item) {
+        try {
+            return (CompletableFuture<Object>) create(item).executeAsync().toCompletableFuture();
+        } catch (Exception e) {
+            CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * 等待到整个批量的截止时间，已超时的项不再等待
+     */
+    private static Object await(CompletableFuture<Object> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | CompletionException e) {
+            return RequestExceptionHandler.toErrorInfo(e.getCause());
+        } catch (TimeoutException e) {
+            return RequestExceptionHandler.toErrorInfo(AppException.of(HttpStatusCode.SERVICE_UNAVAILABLE, "request timeout"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return RequestExceptionHandler.toErrorInfo(AppException.of(HttpStatusCode.SERVICE_UNAVAILABLE, "request interrupted"));
+        }
+    }
+
+    private static BaseAction<?> create(BatchItemInput item) throws Exception {
+        if (null == item) {
+            throw AppException.of(HttpStatusCode.BAD_REQUEST, "batch item is empty");
+        }
+        List<String> violations = InputValidator.of(BatchItemInput.class).validate(item);
+        if (!violations.isEmpty()) {
+            throw AppException.of(HttpStatusCode.BAD_REQUEST, String.join("; ", violations));
+        }
+        String path = item.getPath();
+        Map<String, String> params = new HashMap<>();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            parseQuery(path.substring(query + 1), params);
+            path = path.substring(0, query);
+        }
+        if (null != item.getParams()) {
+            params.putAll(item.getParams());
+        }
+        ActionRoutes.Route route = ActionRoutes.find(item.getMethod(), path);
+        if (null == route) {
+            throw AppException.of(HttpStatusCode.NOT_FOUND, "no batch route for " + item.getPath());
+        }
+        return route.create(params, item.getBody());
+    }
+
+    private static void parseQuery(String query, Map<String, String> params) throws UnsupportedEncodingException {
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+    }
+}
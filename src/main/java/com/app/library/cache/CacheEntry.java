@@ -0,0 +1,50 @@
+package com.app.library.cache;
+
+/**
+ * 缓存的响应
+ */
+public final class CacheEntry {
+    private final byte[] body;
+    /**
+     * 预先压缩的gzip内容，不需要压缩时为null
+     */
+    private final byte[] gzipBody;
+    private final String contentType;
+    private final String etag;
+    private final long expiresAt;
+
+    CacheEntry(byte[] body, byte[] gzipBody, String contentType, String etag, long expiresAt) {
+        this.body = body;
+        this.gzipBody = gzipBody;
+        this.contentType = contentType;
+        this.etag = etag;
+        this.expiresAt = expiresAt;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public byte[] getGzipBody() {
+        return gzipBody;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * 估算占用的字节数
+     */
+    int weight(String key) {
+        return body.length + (null == gzipBody ? 0 : gzipBody.length) + key.length() * 2 + 64;
+    }
+}
@@ -0,0 +1,33 @@
+package com.app.library.cache;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记可以缓存响应的GET接口
+ * 缓存的是序列化后的响应字节，key为 路径+查询参数+headers中列出的请求头，
+ * 命中时不再执行事件流程和Json序列化，并支持If-None-Match返回304。
+ * 注意缓存命中的响应体与首次生成时相同，其中的uuid为首次请求的关联ID；
+ * 非匿名接口的key还包含用户(认证后的用户，未开启认证时为user_id请求头)，
+ * 开启身份认证(auth.enabled)时命中缓存前同样先认证；
+ * 命中时不执行事件的permissionValidate，只会重放同一用户在ttl内已通过授权的响应，
+ * 权限变更最多在ttl之后生效，对此敏感的接口不要使用缓存
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+    /**
+     * 缓存有效期，毫秒
+     */
+    long ttl() default 60000;
+
+    /**
+     * 参与缓存key的请求头
+     */
+    String[] headers() default {};
+
+    /**
+     * 匿名可访问，命中缓存时不做身份认证，所有用户共享同一份缓存
+     */
+    boolean anonymous() default false;
+}
@@ -0,0 +1,161 @@
+package com.app.library.cache;
+
+import com.app.config.CommonConfig;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按字节数限制容量的响应缓存
+ * 按key的hash分为多个段，每段是一个按访问顺序排列的LRU，段内加锁，
+ * 超出容量时淘汰最久未访问的条目，读取时检查过期时间
+ */
+public final class ResponseCache {
+    private static final ResponseCache INSTANCE = new ResponseCache(ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get());
+
+    private final boolean enabled;
+    private final int maxEntryBytes;
+    private final Segment[] segments;
+    private final LongAdder hits = MetricsRegistry.counter("cache.hit");
+    private final LongAdder misses = MetricsRegistry.counter("cache.miss");
+    private final LongAdder evictions = MetricsRegistry.counter("cache.eviction");
+    private final LongAdder notModified = MetricsRegistry.counter("cache.notModified");
+
+    private ResponseCache(ConfigSnapshot config) {
+        this.enabled = config.getBoolean("cache.enabled", true);
+        this.maxEntryBytes = config.getInt("cache.max.entry.bytes", 1 << 20);
+        long maxBytes = config.getLong("cache.max.bytes", 64L << 20);
+        int count = Integer.highestOneBit(Math.max(1, config.getInt("cache.segments", 16)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maxBytes / count);
+        }
+        MetricsRegistry.gauge("cache.bytes", this::bytes);
+        MetricsRegistry.gauge("cache.entries", this::size);
+    }
+
+    public static ResponseCache getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public CacheEntry get(String key) {
+        CacheEntry entry = segment(key).get(key, System.currentTimeMillis());
+        if (null == entry) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    public void put(String key, byte[] body, byte[] gzipBody, String contentType, String etag, long ttl) {
+        if (body.length > maxEntryBytes) {
+            return;
+        }
+        segment(key).put(key, new CacheEntry(body, gzipBody, contentType, etag, System.currentTimeMillis() + ttl));
+    }
+
+    public void invalidate(String key) {
+        segment(key).remove(key);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    void recordNotModified() {
+        notModified.increment();
+    }
+
+    private Segment segment(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private long bytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.bytes();
+        }
+        return total;
+    }
+
+    private long size() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.size();
+        }
+        return total;
+    }
+
+    private final class Segment {
+        private final long maxBytes;
+        private final LinkedHashMap<String, CacheEntry> map = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized CacheEntry get(String key, long now) {
+            CacheEntry entry = map.get(key);
+            if (null != entry && entry.isExpired(now)) {
+                map.remove(key);
+                bytes -= entry.weight(key);
+                return null;
+            }
+            return entry;
+        }
+
+        synchronized void put(String key, CacheEntry entry) {
+            CacheEntry previous = map.put(key, entry);
+            if (null != previous) {
+                bytes -= previous.weight(key);
+            }
+            bytes += entry.weight(key);
+            Iterator<Map.Entry<String, CacheEntry>> iterator = map.entrySet().iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, CacheEntry> eldest = iterator.next();
+                bytes -= eldest.getValue().weight(eldest.getKey());
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized void remove(String key) {
+            CacheEntry entry = map.remove(key);
+            if (null != entry) {
+                bytes -= entry.weight(key);
+            }
+        }
+
+        synchronized void clear() {
+            map.clear();
+            bytes = 0;
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.app.library.cache;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+
+/**
+ * 为标注了@Cacheable的GET接口注册ResponseCacheFilter
+ */
+@Provider
+public class ResponseCacheFeature implements DynamicFeature {
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        Method method = resourceInfo.getResourceMethod();
+        Cacheable cacheable = null == method ? null : method.getAnnotation(Cacheable.class);
+        if (null == cacheable || !method.isAnnotationPresent(GET.class) || !ResponseCache.getInstance().isEnabled()) {
+            return;
+        }
+        context.register(new ResponseCacheFilter(ResponseCache.getInstance(), cacheable));
+    }
+}
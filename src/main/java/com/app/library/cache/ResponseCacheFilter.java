@@ -0,0 +1,221 @@
+package com.app.library.cache;
+
+import com.app.exception.AppException;
+import com.app.library.auth.Authenticator;
+import com.app.library.auth.Principal;
+import com.app.library.compress.Compression;
+import com.app.library.context.RequestContext;
+import com.app.util.HashUtil;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 单个@Cacheable接口的缓存处理，由ResponseCacheFeature按接口创建
+ * 请求阶段命中缓存时直接中止并返回缓存的字节；未命中时记录key，
+ * 写出阶段把序列化结果收集起来存入缓存，同时带上ETag；
+ * 需要压缩的内容在存入时预先gzip，命中且客户端支持gzip时直接返回压缩后的字节
+ * 优先级排在RequestFilter之后(请求ID已生成)，压缩编码之内(缓存未压缩的内容)
+ */
+@Priority(Priorities.USER + 100)
+public class ResponseCacheFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+    static final String CACHE_KEY = "app.cache.key";
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCache cache;
+    private final Compression compression = Compression.getInstance();
+    private final long ttl;
+    private final String[] headers;
+    private final boolean anonymous;
+
+    ResponseCacheFilter(ResponseCache cache, Cacheable cacheable) {
+        this.cache = cache;
+        this.ttl = cacheable.ttl();
+        this.headers = cacheable.headers();
+        this.anonymous = cacheable.anonymous();
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!"GET".equals(requestContext.getMethod())) {
+            return;
+        }
+        authenticate();
+        String key = key(requestContext);
+        CacheEntry entry = cache.get(key);
+        if (null == entry) {
+            requestContext.setProperty(CACHE_KEY, key);
+            return;
+        }
+        if (entry.getEtag().equals(requestContext.getHeaderString(HttpHeaders.IF_NONE_MATCH))) {
+            cache.recordNotModified();
+            requestContext.abortWith(Response.notModified().header(HttpHeaders.ETAG, entry.getEtag()).build());
+            return;
+        }
+        Response.ResponseBuilder builder;
+        if (null != entry.getGzipBody()
+                && Compression.GZIP.equals(compression.negotiate(requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING)))) {
+            builder = Response.ok(entry.getGzipBody(), entry.getContentType())
+                    .header(HttpHeaders.CONTENT_ENCODING, Compression.GZIP);
+        } else {
+            builder = Response.ok(entry.getBody(), entry.getContentType());
+        }
+        requestContext.abortWith(builder
+                .header(HttpHeaders.ETAG, entry.getEtag())
+                .header(CACHE_STATUS_HEADER, "HIT")
+                .build());
+    }
+
+    /**
+     * 命中时不经过事件流程，在查缓存之前认证，失败时抛出的AppException由RequestExceptionHandler处理；
+     * 认证结果留在RequestContext中，未命中时事件不再重复认证
+     */
+    private void authenticate() {
+        if (anonymous || null != RequestContext.getPrincipal()) {
+            return;
+        }
+        Authenticator authenticator = Authenticator.getInstance();
+        if (!authenticator.isEnabled()) {
+            return;
+        }
+        try {
+            RequestContext.setPrincipal(authenticator.authenticate(RequestContext.getUserId(), RequestContext.getAccessToken()));
+        } catch (AppException e) {
+            throw e;
+        } catch (Exception e) {
+            throw AppException.wrap(e);
+        }
+    }
+
+    private String key(ContainerRequestContext requestContext) {
+        StringBuilder key = new StringBuilder(64).append(requestContext.getUriInfo().getPath());
+        String query = requestContext.getUriInfo().getRequestUri().getRawQuery();
+        if (null != query) {
+            key.append('?').append(query);
+        }
+        for (String header : headers) {
+            key.append('|').append(requestContext.getHeaderString(header));
+        }
+        if (!anonymous) {
+            key.append("|u=").append(userId());
+        }
+        return key.toString();
+    }
+
+    /**
+     * 非匿名接口按用户区分缓存：开启认证时取认证后的用户，否则取user_id请求头
+     */
+    private static String userId() {
+        Principal principal = RequestContext.getPrincipal();
+        return null != principal ? principal.getUserId() : RequestContext.getUserId();
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (null != requestContext.getProperty(CACHE_KEY)
+                && (responseContext.getStatus() != Response.Status.OK.getStatusCode() || !responseContext.hasEntity())) {
+            requestContext.removeProperty(CACHE_KEY);
+        }
+    }
+
+    /**
+     * 收集序列化结果，不超过单条上限时存入缓存并输出ETag和Content-Length，
+     * 超过上限则把已收集的内容写出，后续直接透传
+     */
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object key = context.getProperty(CACHE_KEY);
+        if (null == key) {
+            context.proceed();
+            return;
+        }
+        OutputStream target = context.getOutputStream();
+        CaptureOutputStream capture = new CaptureOutputStream(target, cache.getMaxEntryBytes());
+        context.setOutputStream(capture);
+        context.proceed();
+        if (capture.isOverflow()) {
+            return;
+        }
+        byte[] body = capture.toByteArray();
+        String etag = etag(body);
+        List<Object> type = context.getHeaders().get(HttpHeaders.CONTENT_TYPE);
+        String contentType = null == type || type.isEmpty() ? context.getMediaType().toString() : String.valueOf(type.get(0));
+        byte[] gzipBody = compression.isCompressible(MediaType.valueOf(contentType), body.length) ? compression.gzip(body) : null;
+        cache.put((String) key, body, gzipBody, contentType, etag, ttl);
+        context.getHeaders().putSingle(HttpHeaders.ETAG, etag);
+        context.getHeaders().putSingle(CACHE_STATUS_HEADER, "MISS");
+        target.write(body);
+    }
+
+    /**
+     * 64位xxHash加长度，比CRC32碰撞概率低且更快
+     */
+    static String etag(byte[] body) {
+        return HashUtil.appendHex(new StringBuilder(28).append('"'), HashUtil.hash64(body))
+                .append('-').append(Integer.toHexString(body.length)).append('"').toString();
+    }
+
+    private static final class CaptureOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final int limit;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+
+        CaptureOutputStream(OutputStream target, int limit) {
+            this.target = target;
+            this.limit = limit;
+        }
+
+        boolean isOverflow() {
+            return null == buffer;
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (null == buffer) {
+                target.write(b, off, len);
+                return;
+            }
+            if (buffer.size() + len > limit) {
+                buffer.writeTo(target);
+                buffer = null;
+                target.write(b, off, len);
+                return;
+            }
+            buffer.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (null == buffer) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // 由Jersey关闭原始输出流
+        }
+    }
+}
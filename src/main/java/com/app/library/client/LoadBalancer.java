@@ -0,0 +1,40 @@
+package com.app.library.client;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按延迟选择实例：随机取两个实例，选负载评分较小的一个(power of two choices)
+ * 不需要全局排序或加锁，慢实例和请求堆积的实例自然分到更少的流量
+ */
+final class LoadBalancer {
+
+    private LoadBalancer() {
+    }
+
+    static ServiceInstance choose(List<ServiceInstance> instances, ServiceInstance exclude) {
+        int size = instances.size();
+        if (0 == size) {
+            return null;
+        }
+        if (1 == size) {
+            ServiceInstance only = instances.get(0);
+            return only == exclude ? null : only;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        if (a == exclude) {
+            return b;
+        }
+        if (b == exclude) {
+            return a;
+        }
+        return a.score() <= b.score() ? a : b;
+    }
+}
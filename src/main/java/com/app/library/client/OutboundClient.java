@@ -0,0 +1,294 @@
+package com.app.library.client;
+
+import com.app.config.CommonConfig;
+import com.app.domain.HttpStatusCode;
+import com.app.exception.AppException;
+import com.app.library.context.RequestContext;
+import com.app.library.metrics.LatencyHistogram;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.library.provide.GsonMessageBodyHandler;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件调用下游服务的HTTP客户端，每个服务一个实例，通过 OutboundClient.of(service) 获取
+ * 连接由JDK的keep-alive池复用(响应体总是完整读取后关闭)；
+ * 实例由ServiceRegistry提供，按延迟和进行中的请求数选择；
+ * 每个服务有独立的超时和并发上限(舱壁)，超过上限立即返回503而不是排队；
+ * *Async方法在独立的有界线程池上执行，返回CompletionStage，多个下游可并行调用后用allOf合并
+ *
+ * 配置(app-config.properties)：
+ * client.<service>.instances / connect.timeout / read.timeout / max.concurrent / retry
+ */
+public final class OutboundClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboundClient.class);
+    private static final ConcurrentMap<String, OutboundClient> CLIENTS = new ConcurrentHashMap<>();
+    private static final ExecutorService EXECUTOR = createExecutor();
+    private static volatile ServiceRegistry registry = new StaticServiceRegistry();
+
+    private final String service;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int retry;
+    private final Semaphore bulkhead;
+    private final AppException busy;
+    private final LatencyHistogram latency;
+    private final LongAdder errors;
+    private final LongAdder rejected;
+
+    private OutboundClient(String service, ConfigSnapshot config) {
+        String prefix = "client." + service + ".";
+        this.service = service;
+        this.connectTimeout = config.getInt(prefix + "connect.timeout", 1000);
+        this.readTimeout = config.getInt(prefix + "read.timeout", 3000);
+        this.retry = config.getInt(prefix + "retry", 1);
+        int maxConcurrent = config.getInt(prefix + "max.concurrent", 64);
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.busy = AppException.shared(HttpStatusCode.SERVICE_UNAVAILABLE, "service " + service + " is busy");
+        this.latency = MetricsRegistry.histogram(prefix + "latency");
+        this.errors = MetricsRegistry.counter(prefix + "error");
+        this.rejected = MetricsRegistry.counter(prefix + "rejected");
+        MetricsRegistry.gauge(prefix + "inflight", () -> maxConcurrent - bulkhead.availablePermits());
+    }
+
+    public static OutboundClient of(String service) {
+        OutboundClient client = CLIENTS.get(service);
+        return null != client ? client : CLIENTS.computeIfAbsent(service,
+                key -> new OutboundClient(key, ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get()));
+    }
+
+    /**
+     * 替换实例来源，如接入注册中心；在发起调用前设置
+     */
+    public static void setRegistry(ServiceRegistry serviceRegistry) {
+        registry = serviceRegistry;
+    }
+
+    public OutboundResponse get(String path) {
+        return execute("GET", path, null, null);
+    }
+
+    /**
+     * 凭证等敏感参数放在请求头中，不要拼进path：path会出现在日志和下游的访问日志里
+     */
+    public OutboundResponse get(String path, Map<String, String> headers) {
+        return execute("GET", path, headers, null, null);
+    }
+
+    /**
+     * 请求体按接口输出相同的Gson配置序列化为Json
+     */
+    public OutboundResponse post(String path, Object body) {
+        return execute("POST", path, toJson(body), MediaType.APPLICATION_JSON);
+    }
+
+    public OutboundResponse execute(String method, String path, byte[] body, String contentType) {
+        return execute(method, path, null, body, contentType);
+    }
+
+    /**
+     * @param headers 附加的请求头，可以为null
+     */
+    public OutboundResponse execute(String method, String path, Map<String, String> headers, byte[] body, String contentType) {
+        if (!bulkhead.tryAcquire()) {
+            rejected.increment();
+            throw busy;
+        }
+        try {
+            return call(method, path, headers, body, contentType, RequestContext.getRequestId());
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CompletionStage<OutboundResponse> getAsync(String path) {
+        return executeAsync("GET", path, null, null);
+    }
+
+    public CompletionStage<OutboundResponse> postAsync(String path, Object body) {
+        return executeAsync("POST", path, toJson(body), MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * 并发许可在调用线程上获取，超过上限时返回的stage直接以503结束，不占用线程池
+     */
+    public CompletionStage<OutboundResponse> executeAsync(String method, String path, byte[] body, String contentType) {
+        CompletableFuture<OutboundResponse> future = new CompletableFuture<>();
+        if (!bulkhead.tryAcquire()) {
+            rejected.increment();
+            future.completeExceptionally(busy);
+            return future;
+        }
+        String requestId = RequestContext.getRequestId();
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    future.complete(call(method, path, null, body, contentType, requestId));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            rejected.increment();
+            future.completeExceptionally(busy);
+        }
+        return future;
+    }
+
+    /**
+     * 合并多个并行调用的结果，按传入顺序返回，任一失败则整体失败
+     */
+    public static <T> CompletionStage<List<T>> allOf(List<? extends CompletionStage<T>> stages) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[stages.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = stages.get(i).toCompletableFuture();
+        }
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            List<T> results = new ArrayList<>(futures.length);
+            for (CompletionStage<T> stage : stages) {
+                results.add(stage.toCompletableFuture().join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * 选择实例并调用，GET/HEAD连接失败时换一个实例重试
+     */
+    private OutboundResponse call(String method, String path, Map<String, String> headers, byte[] body,
+                                  String contentType, String requestId) {
+        List<ServiceInstance> instances = registry.getInstances(service);
+        boolean idempotent = "GET".equals(method) || "HEAD".equals(method);
+        ServiceInstance previous = null;
+        for (int attempt = 0; ; attempt++) {
+            ServiceInstance instance = LoadBalancer.choose(instances, previous);
+            if (null == instance) {
+                errors.increment();
+                throw AppException.of(HttpStatusCode.SERVICE_UNAVAILABLE, "no available instance of service " + service);
+            }
+            long begin = System.nanoTime();
+            instance.begin();
+            try {
+                OutboundResponse response = send(instance, method, path, headers, body, contentType, requestId);
+                long nanos = System.nanoTime() - begin;
+                instance.end(nanos);
+                latency.record(nanos);
+                return response;
+            } catch (IOException e) {
+                instance.fail();
+                errors.increment();
+                if (idempotent && e instanceof ConnectException && attempt < retry) {
+                    LOGGER.warn("call {} {}{} failed: {}, retry on another instance", method, instance, withoutQuery(path), e.getMessage());
+                    previous = instance;
+                    continue;
+                }
+                throw new AppException("call service " + service + " failed: " + e.getMessage(),
+                        HttpStatusCode.SERVICE_UNAVAILABLE, e);
+            }
+        }
+    }
+
+    private OutboundResponse send(ServiceInstance instance, String method, String path, Map<String, String> headers,
+                                  byte[] body, String contentType, String requestId) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(instance.getBaseUrl() + path).openConnection();
+        try {
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            connection.setUseCaches(false);
+            connection.setRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+            if (null != requestId) {
+                connection.setRequestProperty(RequestContext.REQUEST_ID_HEADER, requestId);
+            }
+            if (null != headers) {
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    connection.setRequestProperty(header.getKey(), header.getValue());
+                }
+            }
+            if (null != body) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+                if (null != contentType) {
+                    connection.setRequestProperty(HttpHeaders.CONTENT_TYPE, contentType);
+                }
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body);
+                }
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            return new OutboundResponse(status, connection.getContentType(), readFully(in), instance);
+        } catch (IOException e) {
+            // 出错的连接不再复用
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    /**
+     * 读完并关闭响应流，连接才会回到keep-alive池
+     */
+    private static byte[] readFully(InputStream in) throws IOException {
+        if (null == in) {
+            return new byte[0];
+        }
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 查询参数可能带有凭证，日志中只输出路径部分
+     */
+    private static String withoutQuery(String path) {
+        int index = path.indexOf('?');
+        return index < 0 ? path : path.substring(0, index);
+    }
+
+    private static byte[] toJson(Object body) {
+        return GsonMessageBodyHandler.getGson().toJson(body).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ExecutorService createExecutor() {
+        ConfigSnapshot config = ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get();
+        int threads = config.getInt("client.async.threads", 32);
+        int queueSize = config.getInt("client.async.queue.size", 1024);
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "outbound-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.app.library.client;
+
+import com.app.library.provide.GsonMessageBodyHandler;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 下游服务的响应，响应体已完整读取(连接已归还keep-alive池)
+ */
+public final class OutboundResponse {
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+    private final ServiceInstance instance;
+
+    OutboundResponse(int status, String contentType, byte[] body, ServiceInstance instance) {
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+        this.instance = instance;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status >= 200 && status < 300;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getBodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 使用与接口输出相同的Gson配置解析Json响应体
+     */
+    public <T> T as(Class<T> type) {
+        return GsonMessageBodyHandler.getGson().fromJson(getBodyAsString(), type);
+    }
+
+    public ServiceInstance getInstance() {
+        return instance;
+    }
+}
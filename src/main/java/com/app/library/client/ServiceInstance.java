@@ -0,0 +1,63 @@
+package com.app.library.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 下游服务的一个实例
+ * 记录进行中的请求数和响应耗时的滑动平均，供负载均衡选择
+ */
+public final class ServiceInstance {
+    /**
+     * 连接失败时计入的惩罚耗时(纳秒)，让后续请求暂时避开该实例
+     */
+    private static final long FAILURE_PENALTY = 1_000_000_000L;
+
+    private final String baseUrl;
+    private final AtomicInteger inflight = new AtomicInteger();
+    /**
+     * 耗时的指数滑动平均(权重1/8)，纳秒，并发更新时允许丢失个别样本
+     */
+    private volatile long averageNanos;
+
+    public ServiceInstance(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long getAverageNanos() {
+        return averageNanos;
+    }
+
+    /**
+     * 负载评分，越小越优先：平均耗时 * (进行中请求数 + 1)
+     */
+    long score() {
+        return Math.max(1, averageNanos) * (inflight.get() + 1);
+    }
+
+    void begin() {
+        inflight.incrementAndGet();
+    }
+
+    void end(long nanos) {
+        inflight.decrementAndGet();
+        long average = averageNanos;
+        averageNanos = 0 == average ? nanos : average + ((nanos - average) >> 3);
+    }
+
+    void fail() {
+        end(Math.max(averageNanos, 0) + FAILURE_PENALTY);
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl;
+    }
+}
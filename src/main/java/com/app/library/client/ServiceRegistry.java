@@ -0,0 +1,11 @@
+package com.app.library.client;
+
+import java.util.List;
+
+/**
+ * 服务实例来源，可以接入注册中心，测试和简单部署使用StaticServiceRegistry
+ * 返回的列表在服务实例变化前保持不变，调用方不修改
+ */
+public interface ServiceRegistry {
+    List<ServiceInstance> getInstances(String service);
+}
@@ -0,0 +1,46 @@
+package com.app.library.client;
+
+import com.app.config.CommonConfig;
+import com.app.util.ConfigStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 从配置读取固定的实例列表：client.<service>.instances=http://host1:8080,http://host2:8080
+ * 同一服务只解析一次，实例对象(及其负载统计)在调用之间复用
+ */
+public class StaticServiceRegistry implements ServiceRegistry {
+    private final ConcurrentMap<String, List<ServiceInstance>> instances = new ConcurrentHashMap<>();
+
+    public StaticServiceRegistry() {
+    }
+
+    /**
+     * 直接指定实例，不读配置，用于测试
+     */
+    public StaticServiceRegistry register(String service, String... baseUrls) {
+        instances.put(service, parse(String.join(",", baseUrls)));
+        return this;
+    }
+
+    @Override
+    public List<ServiceInstance> getInstances(String service) {
+        List<ServiceInstance> list = instances.get(service);
+        return null != list ? list : instances.computeIfAbsent(service, key -> parse(
+                ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get().getString("client." + key + ".instances", "")));
+    }
+
+    private static List<ServiceInstance> parse(String value) {
+        List<ServiceInstance> list = new ArrayList<>();
+        for (String url : value.split(",")) {
+            if (!url.trim().isEmpty()) {
+                list.add(new ServiceInstance(url.trim()));
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+}
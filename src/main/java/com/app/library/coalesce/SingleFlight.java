@@ -0,0 +1,110 @@
+package com.app.library.coalesce;
+
+import com.app.config.CommonConfig;
+import com.app.domain.HttpStatusCode;
+import com.app.exception.AppException;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * 相同key的并发执行合并为一次(single-flight)
+ * 第一个到达的调用(leader)执行任务，执行期间到达的调用(follower)等待并共享leader的结果或异常；
+ * follower等待超过超时时间后自己执行一次，不会无限等待；
+ * leader抛出的AppException按follower所在请求复制一份，uuid与follower自己的关联ID一致；
+ * 每个事件类一个实例，通过ClassValue取得，指标为 coalesce.<事件类名>.*
+ */
+public final class SingleFlight {
+    private static final ConfigSnapshot config = ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get();
+    public static final boolean ENABLED = config.getBoolean("coalesce.enabled", true);
+
+    private static final ClassValue<SingleFlight> FLIGHTS = new ClassValue<SingleFlight>() {
+        @Override
+        protected SingleFlight computeValue(Class<?> type) {
+            return new SingleFlight(type.getSimpleName());
+        }
+    };
+
+    private final long defaultTimeout;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+    private final LongAdder leaders;
+    private final LongAdder followers;
+    private final LongAdder timeouts;
+
+    private SingleFlight(String name) {
+        String prefix = "coalesce." + name + ".";
+        this.defaultTimeout = config.getLong(prefix + "timeout", config.getLong("coalesce.default.timeout", 3000));
+        this.leaders = MetricsRegistry.counter(prefix + "leader");
+        this.followers = MetricsRegistry.counter(prefix + "follower");
+        this.timeouts = MetricsRegistry.counter(prefix + "timeout");
+        // 合并率: follower占全部调用的百分比
+        MetricsRegistry.gauge(prefix + "ratio", () -> {
+            long follower = followers.sum();
+            long total = follower + leaders.sum();
+            return 0 == total ? 0 : follower * 100 / total;
+        });
+        MetricsRegistry.gauge(prefix + "inflight", inflight::size);
+    }
+
+    /**
+     * coalesce.enabled=false 时返回null
+     */
+    public static SingleFlight of(Class<?> actionClass) {
+        return ENABLED ? FLIGHTS.get(actionClass) : null;
+    }
+
+    /**
+     * follower直接共享leader的结果对象
+     * @param timeout follower等待的毫秒数，小于0时使用配置的超时
+     */
+    public <T> T execute(String key, long timeout, Callable<T> task) throws Exception {
+        return execute(key, timeout, task, null);
+    }
+
+    /**
+     * @param timeout follower等待的毫秒数，小于0时使用配置的超时
+     * @param share   follower取得leader结果后的转换(如复制后设置自己的关联ID)，为null时共享同一个对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, long timeout, Callable<T> task, UnaryOperator<T> share) throws Exception {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inflight.putIfAbsent(key, mine);
+        if (null == leader) {
+            leaders.increment();
+            try {
+                T result = task.call();
+                mine.complete(result);
+                return result;
+            } catch (Throwable e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inflight.remove(key, mine);
+            }
+        }
+        followers.increment();
+        try {
+            T result = (T) leader.get(timeout < 0 ? defaultTimeout : timeout, TimeUnit.MILLISECONDS);
+            return null == share || null == result ? result : share.apply(result);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return task.call();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AppException) {
+                throw ((AppException) cause).copyForCurrentRequest();
+            }
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AppException.of(HttpStatusCode.SERVICE_UNAVAILABLE, "request interrupted");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.app.library.compress;
+
+import com.app.config.CommonConfig;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 响应压缩配置与压缩实现
+ * 只压缩server.compression.mime.types中的类型，且响应体不小于server.compression.min.size，
+ * 压缩使用池化的Deflater，级别由server.compression.level指定
+ */
+public final class Compression {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    private static final Compression INSTANCE = new Compression(ConfigStore.of(CommonConfig.SERVER_CONFIG_FILE).get());
+
+    private final boolean enabled;
+    private final int minSize;
+    private final int bufferSize;
+    private final List<MediaType> mediaTypes = new ArrayList<>();
+    private final DeflaterPool gzipPool;
+    private final DeflaterPool deflatePool;
+    private final LongAdder compressed = MetricsRegistry.counter("compression.compressed");
+    private final LongAdder skipped = MetricsRegistry.counter("compression.skipped");
+
+    private Compression(ConfigSnapshot config) {
+        this.enabled = config.getBoolean("server.compression.enabled", true);
+        this.minSize = config.getInt("server.compression.min.size", 1024);
+        this.bufferSize = config.getInt("server.compression.buffer.size", 8192);
+        int level = config.getInt("server.compression.level", Deflater.DEFAULT_COMPRESSION);
+        int poolSize = config.getInt("server.compression.pool.size", 64);
+        for (String type : config.getString("server.compression.mime.types", MediaType.APPLICATION_JSON).split(",")) {
+            if (!type.trim().isEmpty()) {
+                mediaTypes.add(MediaType.valueOf(type.trim()));
+            }
+        }
+        this.gzipPool = new DeflaterPool(level, true, poolSize);
+        this.deflatePool = new DeflaterPool(level, false, poolSize);
+    }
+
+    public static Compression getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * 根据Accept-Encoding选择编码，优先gzip，q=0的编码不使用，都不支持时返回null
+     */
+    public String negotiate(String acceptEncoding) {
+        if (!enabled || null == acceptEncoding) {
+            return null;
+        }
+        String result = null;
+        for (String item : acceptEncoding.split(",")) {
+            String coding = item.trim();
+            int semicolon = coding.indexOf(';');
+            if (semicolon >= 0) {
+                if (isZeroQuality(coding.substring(semicolon + 1))) {
+                    continue;
+                }
+                coding = coding.substring(0, semicolon).trim();
+            }
+            if (GZIP.equalsIgnoreCase(coding) || "x-gzip".equalsIgnoreCase(coding) || "*".equals(coding)) {
+                return GZIP;
+            }
+            if (DEFLATE.equalsIgnoreCase(coding)) {
+                result = DEFLATE;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isZeroQuality(String params) {
+        String value = params.trim();
+        if (!value.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(value.substring(2).trim()) <= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 媒体类型是否在压缩列表中，忽略charset等参数
+     */
+    public boolean isCompressible(MediaType mediaType) {
+        if (!enabled || null == mediaType) {
+            return false;
+        }
+        for (MediaType type : mediaTypes) {
+            if (type.isCompatible(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isCompressible(MediaType mediaType, int length) {
+        return length >= minSize && isCompressible(mediaType);
+    }
+
+    /**
+     * 一次性gzip压缩，用于响应缓存预先保存压缩后的字节
+     */
+    public byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 2));
+        Deflater deflater = gzipPool.acquire();
+        try (GzipOutputStream gzip = new GzipOutputStream(out, deflater, bufferSize)) {
+            gzip.write(body, 0, body.length);
+            gzip.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            gzipPool.release(deflater);
+        }
+        return out.toByteArray();
+    }
+
+    Deflater acquire(String encoding) {
+        return (GZIP.equals(encoding) ? gzipPool : deflatePool).acquire();
+    }
+
+    void release(String encoding, Deflater deflater) {
+        (GZIP.equals(encoding) ? gzipPool : deflatePool).release(deflater);
+    }
+
+    DeflaterOutputStream newStream(String encoding, OutputStream out, Deflater deflater) throws IOException {
+        return GZIP.equals(encoding) ? new GzipOutputStream(out, deflater, bufferSize)
+                : new DeflaterOutputStream(out, deflater, bufferSize);
+    }
+
+    void recordCompressed() {
+        compressed.increment();
+    }
+
+    void recordSkipped() {
+        skipped.increment();
+    }
+}
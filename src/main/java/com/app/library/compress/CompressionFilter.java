@@ -0,0 +1,190 @@
+package com.app.library.compress;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 按大小阈值和媒体类型压缩响应，替代Jersey的EncodingFilter
+ * 响应阶段按Accept-Encoding选出编码；写出阶段先缓冲不超过阈值的内容，
+ * 已知Content-Length(Json缓冲输出)时直接判断，小响应原样输出不带Content-Encoding
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionFilter implements ContainerResponseFilter, WriterInterceptor {
+    static final String ENCODING = "app.compression.encoding";
+
+    private final Compression compression = Compression.getInstance();
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (!responseContext.hasEntity() || !compression.isCompressible(responseContext.getMediaType())) {
+            return;
+        }
+        responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // 已经是压缩后的内容(如响应缓存中的gzip字节)时不再处理
+        if (responseContext.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return;
+        }
+        String encoding = compression.negotiate(requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        if (null != encoding) {
+            requestContext.setProperty(ENCODING, encoding);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object encoding = context.getProperty(ENCODING);
+        if (null == encoding) {
+            context.proceed();
+            return;
+        }
+        ThresholdOutputStream stream = new ThresholdOutputStream((String) encoding, context.getOutputStream(), context.getHeaders());
+        context.setOutputStream(stream);
+        try {
+            context.proceed();
+            stream.finish();
+        } finally {
+            stream.releaseDeflater();
+        }
+    }
+
+    /**
+     * 内容不小于阈值时才开始压缩，开始压缩前设置Content-Encoding并去掉未压缩的Content-Length
+     */
+    private final class ThresholdOutputStream extends OutputStream {
+        private final String encoding;
+        private final OutputStream target;
+        private final MultivaluedMap<String, Object> headers;
+        private byte[] buffer;
+        private int count;
+        private boolean passthrough;
+        private Deflater deflater;
+        private DeflaterOutputStream deflaterStream;
+        private boolean finished;
+
+        ThresholdOutputStream(String encoding, OutputStream target, MultivaluedMap<String, Object> headers) {
+            this.encoding = encoding;
+            this.target = target;
+            this.headers = headers;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (null != deflaterStream) {
+                deflaterStream.write(b, off, len);
+                return;
+            }
+            if (passthrough) {
+                target.write(b, off, len);
+                return;
+            }
+            if (null == buffer) {
+                long length = contentLength();
+                if (length >= 0) {
+                    // 长度已知，不需要缓冲
+                    if (length < compression.getMinSize()) {
+                        skip();
+                        target.write(b, off, len);
+                    } else {
+                        start();
+                        deflaterStream.write(b, off, len);
+                    }
+                    return;
+                }
+                buffer = new byte[compression.getMinSize()];
+            }
+            if (count + len < buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            start();
+            deflaterStream.write(buffer, 0, count);
+            deflaterStream.write(b, off, len);
+        }
+
+        private long contentLength() {
+            Object value = headers.getFirst(HttpHeaders.CONTENT_LENGTH);
+            if (null == value) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(value.toString());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private void skip() {
+            passthrough = true;
+            compression.recordSkipped();
+        }
+
+        private void start() throws IOException {
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+            deflater = compression.acquire(encoding);
+            deflaterStream = compression.newStream(encoding, target, deflater);
+            compression.recordCompressed();
+        }
+
+        /**
+         * 写完后调用：未达到阈值的内容原样输出，压缩流写出结尾
+         */
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (null != deflaterStream) {
+                deflaterStream.finish();
+            } else if (!passthrough) {
+                skip();
+                if (count > 0) {
+                    target.write(buffer, 0, count);
+                }
+            }
+        }
+
+        void releaseDeflater() {
+            finished = true;
+            if (null != deflater) {
+                compression.release(encoding, deflater);
+                deflater = null;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // 未决定是否压缩前不提交响应头
+            if (null != deflaterStream) {
+                deflaterStream.flush();
+            } else if (passthrough) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            target.close();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.app.library.context;
+
+import com.app.library.auth.Principal;
+import com.app.util.CorrelationId;
+
+/**
+ * 请求范围的上下文，保存请求关联ID、请求携带的凭证和认证后的身份
+ * 由RequestFilter在请求开始时设置，异步执行时通过capture/restore传递到执行线程
+ */
+public final class RequestContext {
+    /**
+     * 上下游传递关联ID使用的请求/响应头
+     */
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    /**
+     * 保存在Jersey请求属性中的关联ID
+     */
+    public static final String REQUEST_ID_PROPERTY = "app.request.id";
+    public static final String USER_ID_HEADER = "user_id";
+    public static final String ACCESS_TOKEN_HEADER = "access_token";
+
+    private static final ThreadLocal<String> REQUEST_ID = new ThreadLocal<>();
+    private static final ThreadLocal<Credentials> CREDENTIALS = new ThreadLocal<>();
+
+    private RequestContext() {
+    }
+
+    /**
+     * 开始一个请求，inboundId合法时沿用，否则生成新的ID
+     */
+    public static String begin(String inboundId) {
+        String id = CorrelationId.isValid(inboundId) ? inboundId : CorrelationId.next();
+        REQUEST_ID.set(id);
+        return id;
+    }
+
+    public static void setRequestId(String requestId) {
+        if (null == requestId) {
+            REQUEST_ID.remove();
+        } else {
+            REQUEST_ID.set(requestId);
+        }
+    }
+
+    /**
+     * 当前线程的关联ID，不在请求中时为null
+     */
+    public static String getRequestId() {
+        return REQUEST_ID.get();
+    }
+
+    /**
+     * 当前线程的关联ID，不在请求中时生成一个新的
+     */
+    public static String getOrCreateRequestId() {
+        String id = REQUEST_ID.get();
+        return null == id ? CorrelationId.next() : id;
+    }
+
+    /**
+     * 请求头中的user_id和access_token，都为空时不保存
+     */
+    public static void setCredentials(String userId, String accessToken) {
+        if (null == userId && null == accessToken) {
+            CREDENTIALS.remove();
+        } else {
+            CREDENTIALS.set(new Credentials(userId, accessToken));
+        }
+    }
+
+    public static String getUserId() {
+        Credentials credentials = CREDENTIALS.get();
+        return null == credentials ? null : credentials.userId;
+    }
+
+    public static String getAccessToken() {
+        Credentials credentials = CREDENTIALS.get();
+        return null == credentials ? null : credentials.accessToken;
+    }
+
+    /**
+     * 当前请求认证后的身份，未认证时为null
+     */
+    public static Principal getPrincipal() {
+        Credentials credentials = CREDENTIALS.get();
+        return null == credentials ? null : credentials.principal;
+    }
+
+    public static void setPrincipal(Principal principal) {
+        Credentials credentials = CREDENTIALS.get();
+        if (null == credentials) {
+            credentials = new Credentials(null == principal ? null : principal.getUserId(), null);
+            CREDENTIALS.set(credentials);
+        }
+        credentials.principal = principal;
+    }
+
+    /**
+     * 取出当前线程的上下文，在其他线程中restore
+     */
+    public static Snapshot capture() {
+        return new Snapshot(REQUEST_ID.get(), CREDENTIALS.get());
+    }
+
+    public static void restore(Snapshot snapshot) {
+        setRequestId(snapshot.requestId);
+        if (null == snapshot.credentials) {
+            CREDENTIALS.remove();
+        } else {
+            CREDENTIALS.set(snapshot.credentials);
+        }
+    }
+
+    public static void clear() {
+        REQUEST_ID.remove();
+        CREDENTIALS.remove();
+    }
+
+    public static final class Snapshot {
+        private final String requestId;
+        private final Credentials credentials;
+
+        private Snapshot(String requestId, Credentials credentials) {
+            this.requestId = requestId;
+            this.credentials = credentials;
+        }
+
+        public String getRequestId() {
+            return requestId;
+        }
+    }
+
+    /**
+     * 一个请求的凭证，认证成功后记录身份；
+     * 异步执行时与执行线程共享，认证结果对两边都可见
+     */
+    private static final class Credentials {
+        private final String userId;
+        private final String accessToken;
+        private volatile Principal principal;
+
+        private Credentials(String userId, String accessToken) {
+            this.userId = userId;
+            this.accessToken = accessToken;
+        }
+    }
+}
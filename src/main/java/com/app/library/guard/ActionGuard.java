@@ -0,0 +1,193 @@
+package com.app.library.guard;
+
+import com.app.config.CommonConfig;
+import com.app.domain.HttpStatusCode;
+import com.app.exception.AppException;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按事件类隔离：信号量舱壁 + 熔断器，可选独立线程池(executeAsync使用)
+ * 每个事件类在第一次执行时按配置创建，之后通过ClassValue直接取得；
+ * 配置先取 guard.<事件类名>.xxx，没有时取 guard.default.xxx：
+ * max.concurrent      同时执行的上限，0为不限制
+ * threads/queue.size  大于0时executeAsync使用该事件独立的有界线程池
+ * window.seconds      统计窗口
+ * min.requests        窗口内调用数达到该值后才判断熔断
+ * failure.rate        失败率(%)阈值，只有5xx和非业务异常计为失败
+ * slow.call.ms/slow.rate  慢调用阈值和慢调用率(%)阈值，0为不判断
+ * open.ms             熔断打开的时间
+ * halfopen.max.ms     试探调用的最长等待，超过后放弃该试探、放行新的试探，默认同open.ms
+ * 状态通过指标 guard.<事件类名>.* 查看
+ */
+public final class ActionGuard {
+    public static final boolean ENABLED = ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get()
+            .getBoolean("guard.enabled", true);
+
+    private static final ClassValue<ActionGuard> GUARDS = new ClassValue<ActionGuard>() {
+        @Override
+        protected ActionGuard computeValue(Class<?> type) {
+            return new ActionGuard(type.getSimpleName(), ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get());
+        }
+    };
+
+    private final Semaphore bulkhead;
+    private final CircuitBreaker breaker;
+    private final long slowNanos;
+    private final ExecutorService executor;
+    private final Permit circuitOpen;
+    private final Permit busy;
+    private final LongAdder shortCircuited;
+    private final LongAdder rejected;
+    private final LongAdder failures;
+    private final LongAdder fallbacks;
+
+    private ActionGuard(String name, ConfigSnapshot config) {
+        String prefix = "guard." + name + ".";
+        int maxConcurrent = getInt(config, name, "max.concurrent", 0);
+        this.bulkhead = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        int openMillis = getInt(config, name, "open.ms", 5000);
+        this.breaker = new CircuitBreaker(getInt(config, name, "window.seconds", 10),
+                getInt(config, name, "min.requests", 20),
+                getInt(config, name, "failure.rate", 50),
+                getInt(config, name, "slow.rate", 0),
+                openMillis,
+                getInt(config, name, "halfopen.max.ms", openMillis));
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(getInt(config, name, "slow.call.ms", 0));
+        this.executor = createExecutor(name, getInt(config, name, "threads", 0), getInt(config, name, "queue.size", 256));
+        this.circuitOpen = new Permit(false, 0, AppException.shared(HttpStatusCode.SERVICE_UNAVAILABLE, name + " is temporarily unavailable"));
+        this.busy = new Permit(false, 0, AppException.shared(HttpStatusCode.SERVICE_UNAVAILABLE, name + " is busy"));
+        this.shortCircuited = MetricsRegistry.counter(prefix + "shortCircuited");
+        this.rejected = MetricsRegistry.counter(prefix + "rejected");
+        this.failures = MetricsRegistry.counter(prefix + "failure");
+        this.fallbacks = MetricsRegistry.counter(prefix + "fallback");
+        MetricsRegistry.gauge(prefix + "state", breaker::getState);
+        if (null != bulkhead) {
+            MetricsRegistry.gauge(prefix + "concurrent", () -> maxConcurrent - bulkhead.availablePermits());
+        }
+    }
+
+    /**
+     * guard.enabled=false 时返回null
+     */
+    public static ActionGuard of(Class<?> actionClass) {
+        return ENABLED ? GUARDS.get(actionClass) : null;
+    }
+
+    /**
+     * 进入事件执行
+     * @return 放行时之后必须调用exit并传回该Permit；isRejected时为拒绝(503)
+     */
+    public Permit enter() {
+        if (null != bulkhead && !bulkhead.tryAcquire()) {
+            rejected.increment();
+            return busy;
+        }
+        long now = System.currentTimeMillis();
+        int allowed = breaker.allow(now);
+        if (CircuitBreaker.REJECTED == allowed) {
+            if (null != bulkhead) {
+                bulkhead.release();
+            }
+            shortCircuited.increment();
+            return circuitOpen;
+        }
+        return CircuitBreaker.TRIAL == allowed ? new Permit(true, now, null) : Permit.PERMITTED;
+    }
+
+    /**
+     * 事件执行结束，error为null表示成功
+     */
+    public void exit(Permit permit, long beginNanos, Throwable error) {
+        if (null != bulkhead) {
+            bulkhead.release();
+        }
+        boolean failure = isFailure(error);
+        if (failure) {
+            failures.increment();
+        }
+        boolean slow = slowNanos > 0 && System.nanoTime() - beginNanos > slowNanos;
+        if (permit.trial) {
+            breaker.recordTrial(System.currentTimeMillis(), permit.trialStarted, failure, slow);
+        } else {
+            breaker.record(System.currentTimeMillis(), failure, slow);
+        }
+    }
+
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    /**
+     * 事件独立的线程池，未配置时为null
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 参数错误、无权限等业务异常不代表依赖故障，不计入失败
+     */
+    private static boolean isFailure(Throwable error) {
+        if (null == error) {
+            return false;
+        }
+        if (error instanceof AppException) {
+            int code = ((AppException) error).getCode();
+            return 0 == code || code >= HttpStatusCode.SERVER_ERROR;
+        }
+        return true;
+    }
+
+    /**
+     * enter的结果，除熔断试探外都预先创建，不在每次调用时分配
+     */
+    public static final class Permit {
+        static final Permit PERMITTED = new Permit(false, 0, null);
+
+        private final boolean trial;
+        private final long trialStarted;
+        private final AppException rejection;
+
+        private Permit(boolean trial, long trialStarted, AppException rejection) {
+            this.trial = trial;
+            this.trialStarted = trialStarted;
+            this.rejection = rejection;
+        }
+
+        public boolean isRejected() {
+            return null != rejection;
+        }
+
+        /**
+         * 拒绝原因，放行时为null
+         */
+        public AppException getRejection() {
+            return rejection;
+        }
+    }
+
+    private static int getInt(ConfigSnapshot config, String name, String key, int defaultValue) {
+        return config.getInt("guard." + name + "." + key, config.getInt("guard.default." + key, defaultValue));
+    }
+
+    private static ExecutorService createExecutor(String name, int threads, int queueSize) {
+        if (threads <= 0) {
+            return null;
+        }
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), runnable -> {
+                    Thread thread = new Thread(runnable, "guard-" + name + "-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,122 @@
+package com.app.library.guard;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 熔断器
+ * CLOSED: 正常放行，窗口内调用数达到minRequests且失败率或慢调用率超过阈值时转为OPEN；
+ * OPEN: 全部短路，openMillis之后第一个调用作为试探转为HALF_OPEN；
+ * HALF_OPEN: 只放行试探调用，成功则CLOSED并清空窗口，失败则重新OPEN；
+ * 只有allow返回TRIAL的那次调用的结果决定HALF_OPEN的去向，
+ * 之前CLOSED时放行、晚结束的调用在非CLOSED状态下直接忽略；
+ * 试探调用超过halfOpenMaxMillis仍未结束(依赖挂起)时放弃它，下一个调用成为新的试探，
+ * 被放弃的试探之后结束时按开始时间识别并忽略
+ */
+final class CircuitBreaker {
+    static final int CLOSED = 0;
+    static final int OPEN = 1;
+    static final int HALF_OPEN = 2;
+
+    static final int REJECTED = 0;
+    static final int PERMITTED = 1;
+    static final int TRIAL = 2;
+
+    private final RollingWindow window;
+    private final int minRequests;
+    private final int failureRate;
+    private final int slowRate;
+    private final long openMillis;
+    private final long halfOpenMaxMillis;
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private volatile long openUntil;
+    private volatile long trialStarted;
+
+    CircuitBreaker(int windowSeconds, int minRequests, int failureRate, int slowRate, long openMillis) {
+        this(windowSeconds, minRequests, failureRate, slowRate, openMillis, openMillis);
+    }
+
+    CircuitBreaker(int windowSeconds, int minRequests, int failureRate, int slowRate, long openMillis,
+                   long halfOpenMaxMillis) {
+        this.window = new RollingWindow(windowSeconds);
+        this.minRequests = minRequests;
+        this.failureRate = failureRate;
+        this.slowRate = slowRate;
+        this.openMillis = openMillis;
+        this.halfOpenMaxMillis = halfOpenMaxMillis;
+    }
+
+    int getState() {
+        return state.get();
+    }
+
+    /**
+     * @return REJECTED短路，PERMITTED正常放行，TRIAL为HALF_OPEN的试探调用，
+     * 返回TRIAL时nowMillis即为该试探的开始时间，结束时传给recordTrial
+     */
+    int allow(long nowMillis) {
+        int current = state.get();
+        if (CLOSED == current) {
+            return PERMITTED;
+        }
+        if (!trialDue(current, nowMillis)) {
+            return REJECTED;
+        }
+        // 只有到了试探时间才加锁，状态和试探开始时间一起更新
+        synchronized (this) {
+            current = state.get();
+            if (CLOSED == current) {
+                return PERMITTED;
+            }
+            if (!trialDue(current, nowMillis)) {
+                return REJECTED;
+            }
+            trialStarted = nowMillis;
+            state.set(HALF_OPEN);
+            return TRIAL;
+        }
+    }
+
+    private boolean trialDue(int current, long nowMillis) {
+        return OPEN == current ? nowMillis >= openUntil : nowMillis - trialStarted >= halfOpenMaxMillis;
+    }
+
+    /**
+     * CLOSED时放行的调用结束
+     */
+    void record(long nowMillis, boolean failure, boolean slow) {
+        if (CLOSED != state.get()) {
+            return;
+        }
+        window.record(nowMillis, failure, slow);
+        if (failure || slow) {
+            long[] sum = window.sum(nowMillis);
+            if (sum[0] >= minRequests && (exceeds(sum[1], sum[0], failureRate) || exceeds(sum[2], sum[0], slowRate))) {
+                open(nowMillis);
+            }
+        }
+    }
+
+    /**
+     * 试探调用结束，已被新的试探取代时忽略
+     * @param started allow返回TRIAL时传入的时间
+     */
+    synchronized void recordTrial(long nowMillis, long started, boolean failure, boolean slow) {
+        if (HALF_OPEN != state.get() || trialStarted != started) {
+            return;
+        }
+        if (failure || slow) {
+            open(nowMillis);
+        } else if (state.compareAndSet(HALF_OPEN, CLOSED)) {
+            window.clear();
+        }
+    }
+
+    private static boolean exceeds(long count, long total, int rate) {
+        return rate > 0 && count * 100 >= total * rate;
+    }
+
+    private void open(long nowMillis) {
+        openUntil = nowMillis + openMillis;
+        state.set(OPEN);
+    }
+}
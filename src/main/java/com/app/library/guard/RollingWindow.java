@@ -0,0 +1,71 @@
+package com.app.library.guard;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按秒分桶的滑动窗口，统计最近若干秒的调用数、失败数和慢调用数
+ * 桶在进入新的一秒时重置，重置时加锁，同一秒内的记录只做LongAdder累加
+ */
+final class RollingWindow {
+    private final Bucket[] buckets;
+
+    RollingWindow(int seconds) {
+        buckets = new Bucket[Math.max(1, seconds)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    void record(long nowMillis, boolean failure, boolean slow) {
+        long second = nowMillis / 1000;
+        Bucket bucket = buckets[(int) (second % buckets.length)];
+        if (bucket.second != second) {
+            bucket.reset(second);
+        }
+        bucket.total.increment();
+        if (failure) {
+            bucket.failures.increment();
+        }
+        if (slow) {
+            bucket.slow.increment();
+        }
+    }
+
+    /**
+     * @return {调用数, 失败数, 慢调用数}
+     */
+    long[] sum(long nowMillis) {
+        long oldest = nowMillis / 1000 - buckets.length + 1;
+        long[] result = new long[3];
+        for (Bucket bucket : buckets) {
+            if (bucket.second >= oldest) {
+                result[0] += bucket.total.sum();
+                result[1] += bucket.failures.sum();
+                result[2] += bucket.slow.sum();
+            }
+        }
+        return result;
+    }
+
+    void clear() {
+        for (Bucket bucket : buckets) {
+            bucket.reset(-1);
+        }
+    }
+
+    private static final class Bucket {
+        private volatile long second = -1;
+        private final LongAdder total = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+
+        synchronized void reset(long newSecond) {
+            if (second != newSecond) {
+                total.reset();
+                failures.reset();
+                slow.reset();
+                second = newSecond;
+            }
+        }
+    }
+}
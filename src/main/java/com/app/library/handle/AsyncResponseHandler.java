@@ -0,0 +1,37 @@
+package com.app.library.handle;
+
+import com.app.config.CommonConfig;
+import com.app.domain.HttpStatusCode;
+import com.app.exception.AppException;
+import com.app.util.ConfigStore;
+
+import javax.ws.rs.container.AsyncResponse;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把异步事件的结果回写到挂起的Jersey请求
+ * 异常交给RequestExceptionHandler统一处理，超时返回503
+ */
+public final class AsyncResponseHandler {
+    private static final long TIMEOUT = ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get()
+            .getLong("action.async.timeout", 30000);
+
+    private AsyncResponseHandler() {
+    }
+
+    public static <T> void resume(CompletionStage<T> stage, AsyncResponse asyncResponse) {
+        asyncResponse.setTimeout(TIMEOUT, TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(response ->
+                response.resume(AppException.of(HttpStatusCode.SERVICE_UNAVAILABLE, "request timeout")));
+        stage.whenComplete((result, error) -> {
+            if (null == error) {
+                asyncResponse.resume(result);
+            } else {
+                asyncResponse.resume(error instanceof CompletionException && null != error.getCause()
+                        ? error.getCause() : error);
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.app.library.handle;
+
+import com.app.domain.HttpStatusCode;
+import org.springframework.context.MessageSource;
+
+import javax.ws.rs.core.Response;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 状态码对应的默认错误信息
+ * 按Locale和状态码缓存，同一状态码只向MessageSource查询一次
+ */
+final class ErrorMessages {
+    private static final String SERVER_ERROR = "inside server error";
+    private static final int MAX_CODE = 600;
+    private static final ConcurrentMap<Locale, AtomicReferenceArray<String>> CACHE = new ConcurrentHashMap<>();
+
+    private ErrorMessages() {
+    }
+
+    static String resolve(int code, MessageSource messageSource, Locale locale) {
+        if (!HttpStatusCode.isValid(code)) {
+            return lookup(code, messageSource, locale);
+        }
+        Locale key = null == locale ? Locale.ROOT : locale;
+        AtomicReferenceArray<String> messages = CACHE.get(key);
+        if (null == messages) {
+            messages = CACHE.computeIfAbsent(key, k -> new AtomicReferenceArray<>(MAX_CODE));
+        }
+        String message = messages.get(code);
+        if (null == message) {
+            message = lookup(code, messageSource, locale);
+            messages.lazySet(code, message);
+        }
+        return message;
+    }
+
+    private static String lookup(int code, MessageSource messageSource, Locale locale) {
+        String message = null;
+        if (null != messageSource) {
+            message = messageSource.getMessage(HttpStatusCode.toString(code), null, null,
+                    null == locale ? Locale.getDefault() : locale);
+        }
+        if (null == message) {
+            Response.Status status = Response.Status.fromStatusCode(code);
+            message = null == status || code >= HttpStatusCode.SERVER_ERROR ? SERVER_ERROR : status.getReasonPhrase();
+        }
+        return message;
+    }
+}
@@ -4,20 +4,23 @@ package com.app.library.handle;
 import com.app.domain.HttpStatusCode;
 import com.app.exception.AppException;
 import com.app.exception.ErrorInfo;
+import com.app.library.context.RequestContext;
+import com.app.library.provide.CborMessageBodyHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.context.WebApplicationContext;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
 import javax.ws.rs.ext.Provider;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.UUID;
 
 
 @Provider
@@ -28,52 +31,109 @@ public class RequestExceptionHandler implements ExceptionMapper<Throwable> {
     private ServletContext servletContext;
     @Context
     private HttpServletRequest request;
-    @Context
-    private HttpServletResponse response;
 
     @Override
     public Response toResponse(Throwable exception) {
-        String code = HttpStatusCode.SERVER_ERROR;
-        try{
-            code = String.valueOf((200==response.getStatus())?HttpStatusCode.SERVER_ERROR:response.getStatus());
-        }catch (Exception e){
-            code = HttpStatusCode.SERVER_ERROR;
+        if (exception instanceof AppException) {
+            AppException appException = (AppException) exception;
+            int code = HttpStatusCode.isValid(appException.getCode()) ? appException.getCode() : HttpStatusCode.SERVER_ERROR;
+            String message = appException.getMessage();
+            if (null == message) {
+                message = ErrorMessages.resolve(code, messageSource(), request.getLocale());
+            }
+            ErrorInfo errorOutput = new ErrorInfo(HttpStatusCode.toString(code), message,
+                    appException.isShared() ? requestId() : appException.getUuid());
+            syncErrorLogOutput(code, errorOutput, exception.getCause());
+            return build(code, errorOutput);
+        }
+        int code = HttpStatusCode.SERVER_ERROR;
+        if (exception instanceof WebApplicationException) {
+            // Jersey自身的异常(404、405等)沿用其状态码
+            code = ((WebApplicationException) exception).getResponse().getStatus();
+        } else {
+            LOGGER.error("Request event found unexpected error, [uuid: {}]", requestId(), exception);
         }
-        String SERVER_ERROR = "inside server error";
+        ErrorInfo errorInfo = new ErrorInfo(HttpStatusCode.toString(code),
+                ErrorMessages.resolve(code, messageSource(), request.getLocale()), requestId());
+        return build(code, errorInfo);
+    }
 
-        WebApplicationContext context = (WebApplicationContext) servletContext.getAttribute(CONTEXT_ATTRIBUTE);
+    /**
+     * 不经过Jersey的异常转换为ErrorInfo(如批量请求中的单项)，使用默认错误信息，5xx记录异常栈
+     */
+    public static ErrorInfo toErrorInfo(Throwable exception) {
+        String requestId = RequestContext.getOrCreateRequestId();
         if (exception instanceof AppException) {
             AppException appException = (AppException) exception;
-            code = appException.getCode();
-            code = (null == code ? HttpStatusCode.SERVER_ERROR : appException.getCode());
-            String uuid = appException.getUuid();
-            String message = appException.getMessage();
-            message = (null == message) ? context.getMessage(code, null, exception.getMessage(),
-                    request.getLocale()) : message;
-            ErrorInfo errorOutput = new ErrorInfo(String.valueOf(code), message, uuid);
-            syncErrorLogOutput(errorOutput);
-            return Response.ok(errorOutput, MediaType.APPLICATION_JSON_TYPE).status(Integer.parseInt(code))
-                    .build();
+            int code = HttpStatusCode.isValid(appException.getCode()) ? appException.getCode() : HttpStatusCode.SERVER_ERROR;
+            String message = null == appException.getMessage() ? ErrorMessages.resolve(code, null, null) : appException.getMessage();
+            if (code >= HttpStatusCode.SERVER_ERROR) {
+                LOGGER.error("Request event found error info: [message: {}], [uuid: {}]", message, requestId, exception.getCause());
+            }
+            return new ErrorInfo(HttpStatusCode.toString(code), message, appException.isShared() ? requestId : appException.getUuid());
+        }
+        LOGGER.error("Request event found unexpected error, [uuid: {}]", requestId, exception);
+        return new ErrorInfo(HttpStatusCode.toString(HttpStatusCode.SERVER_ERROR),
+                ErrorMessages.resolve(HttpStatusCode.SERVER_ERROR, null, null), requestId);
+    }
+
+    /**
+     * 客户端优先接受CBOR时错误信息也按CBOR输出，否则为Json
+     */
+    private Response build(int code, ErrorInfo errorInfo) {
+        MediaType type = CborMessageBodyHandler.prefers(request.getHeader(HttpHeaders.ACCEPT))
+                ? CborMessageBodyHandler.APPLICATION_CBOR_TYPE : MediaType.APPLICATION_JSON_TYPE;
+        return Response.status(code).entity(errorInfo).type(type).build();
+    }
+
+    private WebApplicationContext messageSource() {
+        return (WebApplicationContext) servletContext.getAttribute(CONTEXT_ATTRIBUTE);
+    }
+
+    /**
+     * 优先使用RequestFilter保存在请求属性中的关联ID,异步请求在其他线程恢复时同样可以取到
+     */
+    private String requestId() {
+        Object requestId = request.getAttribute(RequestContext.REQUEST_ID_PROPERTY);
+        return requestId instanceof String ? (String) requestId : RequestContext.getOrCreateRequestId();
+    }
+
+    /**
+     * 4xx为可预期的业务错误,只记录一行警告;5xx带上原始异常栈
+     */
+    private void syncErrorLogOutput(int code, ErrorInfo errorInfoOutput, Throwable cause) {
+        String error = "Request event found error info: [user_id: {}], [path: {}], [method: {}], [params: {}] [message: {}]. [code: {}], [uuid: {}]";
+        Object[] args = {request.getHeader("user_id"), request.getRequestURI(), request.getMethod(),
+                new ParameterMap(request.getParameterMap()), errorInfoOutput.getMesssage(),
+                errorInfoOutput.getCode(), errorInfoOutput.getUuid(), cause};
+        if (code >= HttpStatusCode.SERVER_ERROR) {
+            LOGGER.error(error, args);
+        } else if (LOGGER.isWarnEnabled()) {
+            args[args.length - 1] = null;
+            LOGGER.warn(error, args);
         }
-        ErrorInfo errorInfo = new ErrorInfo(code, SERVER_ERROR, UUID.randomUUID().toString());
-        return Response.ok(errorInfo, MediaType.APPLICATION_JSON_TYPE).status(Integer.parseInt(code))
-                .build();
     }
 
-    private void syncErrorLogOutput(ErrorInfo errorInfoOutput) {
-        String userId = request.getHeader("user_id");
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-        Map<String, String[]> params = request.getParameterMap();
-        String error = "Request event found error info: [user_id: %s], [path: %s], [method: %s], [params: %s] [message: %s]. [code: %s], [uuid: %s]";
-        error = String.format(error,
-                userId,
-                path,
-                method,
-                params,
-                errorInfoOutput.getMesssage(),
-                errorInfoOutput.getCode(),
-                errorInfoOutput.getUuid());
-        LOGGER.error(error);
+    /**
+     * 参数只在日志真正输出时才格式化
+     */
+    private static final class ParameterMap {
+        private final Map<String, String[]> params;
+
+        ParameterMap(Map<String, String[]> params) {
+            this.params = params;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("{");
+            for (Map.Entry<String, String[]> entry : params.entrySet()) {
+                if (builder.length() > 1) {
+                    builder.append(", ");
+                }
+                builder.append(entry.getKey()).append('=').append(Arrays.toString(entry.getValue()));
+            }
+            return builder.append('}').toString();
+        }
     }
-}
\ No newline at end of file
+}
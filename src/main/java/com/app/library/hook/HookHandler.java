@@ -0,0 +1,11 @@
+package com.app.library.hook;
+
+import com.google.gson.JsonElement;
+
+/**
+ * webhook事件的处理逻辑，在HookIngestor的后台线程中执行
+ */
+@FunctionalInterface
+public interface HookHandler {
+    void handle(JsonElement event) throws Exception;
+}
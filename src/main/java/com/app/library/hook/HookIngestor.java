@@ -0,0 +1,253 @@
+package com.app.library.hook;
+
+import com.app.config.CommonConfig;
+import com.app.domain.HttpStatusCode;
+import com.app.exception.AppException;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * webhook流式接收
+ * 请求体不整体反序列化，JsonReader按token从实体流读取：顶层为数组时每个元素作为一个事件，
+ * 否则整个请求体为一个事件；每个事件按token校验并复制为紧凑的UTF-8字节，不在请求线程构建JsonElement树，
+ * 暂存的字节不超过hook.max.body.bytes。整个请求体校验通过后才把全部事件一次放入有界队列，
+ * 由后台线程解析后交给HookHandler处理。调用方对非2xx会重试，因此失败时不会有事件已入队，
+ * 避免重试后重复处理。
+ * 请求体超过hook.max.body.bytes时返回413，Content-Length已知时在读取前拒绝，
+ * 队列剩余空间不足以放下全部事件时返回503，调用方据此重试，事件数超过hook.queue.size时返回413
+ * 配置(app-config.properties)：hook.max.body.bytes, hook.queue.size, hook.workers
+ */
+public final class HookIngestor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HookIngestor.class);
+    private static final AppException QUEUE_FULL = AppException.shared(HttpStatusCode.SERVICE_UNAVAILABLE, "hook queue is full");
+    private static volatile HookIngestor instance;
+
+    private final long maxBodyBytes;
+    private final int queueSize;
+    private final BlockingQueue<byte[]> queue;
+    private final AppException tooLarge;
+    private final JsonParser parser = new JsonParser();
+    private volatile HookHandler handler = event -> LOGGER.info("receiver result is{}", event);
+
+    private final LongAdder accepted = MetricsRegistry.counter("hook.accepted");
+    private final LongAdder rejected = MetricsRegistry.counter("hook.rejected");
+    private final LongAdder failed = MetricsRegistry.counter("hook.failed");
+
+    private HookIngestor(ConfigSnapshot config) {
+        this.maxBodyBytes = config.getLong("hook.max.body.bytes", 1048576);
+        this.queueSize = config.getInt("hook.queue.size", 1024);
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.tooLarge = AppException.shared(HttpStatusCode.PAYLOAD_TOO_LARGE, "hook body exceed " + maxBodyBytes + " bytes");
+        MetricsRegistry.gauge("hook.queue.size", queue::size);
+        int workers = Math.max(1, config.getInt("hook.workers", 1));
+        for (int i = 1; i <= workers; i++) {
+            Thread worker = new Thread(this::drainLoop, "hook-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    public static HookIngestor getInstance() {
+        HookIngestor ingestor = instance;
+        if (null == ingestor) {
+            synchronized (HookIngestor.class) {
+                ingestor = instance;
+                if (null == ingestor) {
+                    ingestor = new HookIngestor(ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get());
+                    instance = ingestor;
+                }
+            }
+        }
+        return ingestor;
+    }
+
+    public void setHandler(HookHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * 读取并校验整个请求体，再把全部事件放入处理队列
+     * @param contentLength 请求头中的长度，未知时小于0
+     * @return 放入队列的事件数
+     */
+    public int ingest(InputStream body, long contentLength) {
+        if (contentLength > maxBodyBytes) {
+            rejected.increment();
+            throw tooLarge;
+        }
+        List<byte[]> events = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new LimitedInputStream(body), StandardCharsets.UTF_8))) {
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (events.size() == queueSize) {
+                        // 重试也放不下，不返回503
+                        rejected.increment();
+                        throw AppException.of(HttpStatusCode.PAYLOAD_TOO_LARGE, "hook events exceed queue size " + queueSize);
+                    }
+                    events.add(copyValue(reader, buffer));
+                }
+                reader.endArray();
+            } else {
+                events.add(copyValue(reader, buffer));
+            }
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw AppException.of(HttpStatusCode.BAD_REQUEST, "hook body has trailing content");
+            }
+        } catch (AppException e) {
+            throw e;
+        } catch (JsonParseException | IOException | IllegalStateException e) {
+            rejected.increment();
+            throw new AppException("hook body is not valid json", HttpStatusCode.BAD_REQUEST, e);
+        }
+        enqueueAll(events);
+        return events.size();
+    }
+
+    /**
+     * 按token把一个值从reader复制为紧凑的Json字节，同时完成语法校验；数字按原文复制，不损失精度
+     */
+    private static byte[] copyValue(JsonReader reader, ByteArrayOutputStream buffer) throws IOException {
+        buffer.reset();
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+        int depth = 0;
+        do {
+            switch (reader.peek()) {
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    writer.beginArray();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    writer.endArray();
+                    depth--;
+                    break;
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    writer.beginObject();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    writer.endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    writer.name(reader.nextName());
+                    break;
+                case STRING:
+                    writer.value(reader.nextString());
+                    break;
+                case NUMBER:
+                    writer.jsonValue(reader.nextString());
+                    break;
+                case BOOLEAN:
+                    writer.value(reader.nextBoolean());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    writer.nullValue();
+                    break;
+                default:
+                    throw new EOFException("hook body ended unexpectedly");
+            }
+        } while (depth > 0);
+        writer.flush();
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 全部放入或全部拒绝；入队方之间加锁，后台线程只取出，检查剩余空间后offer不会失败
+     */
+    private void enqueueAll(List<byte[]> events) {
+        synchronized (queue) {
+            if (queue.remainingCapacity() < events.size()) {
+                rejected.increment();
+                throw QUEUE_FULL;
+            }
+            for (byte[] event : events) {
+                queue.offer(event);
+            }
+        }
+        accepted.add(events.size());
+    }
+
+    private void drainLoop() {
+        while (true) {
+            byte[] event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                handler.handle(parser.parse(new String(event, StandardCharsets.UTF_8)));
+            } catch (Exception e) {
+                failed.increment();
+                LOGGER.error("handle hook event error", e);
+            }
+        }
+    }
+
+    /**
+     * 读取超过上限时抛出413，不再继续读取剩余请求体
+     */
+    private final class LimitedInputStream extends FilterInputStream {
+        private long remaining = maxBodyBytes;
+
+        LimitedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                consume(n);
+            }
+            return n;
+        }
+
+        private void consume(int n) {
+            remaining -= n;
+            if (remaining < 0) {
+                rejected.increment();
+                throw tooLarge;
+            }
+        }
+    }
+}
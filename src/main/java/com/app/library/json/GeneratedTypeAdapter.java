@@ -0,0 +1,96 @@
+package com.app.library.json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * JsonAdapterProcessor生成的TypeAdapter的基类
+ * 生成的代码直接调用getter/setter或访问字段，这里提供与Gson默认行为一致的基本类型读取，
+ * 以及无法生成读取逻辑(没有无参构造等)时退回Gson反射适配器
+ */
+public abstract class GeneratedTypeAdapter<T> extends TypeAdapter<T> {
+    protected final Gson gson;
+    private final TypeAdapterFactory skipPast;
+    private final Class<T> type;
+    private volatile TypeAdapter<T> reflective;
+
+    protected GeneratedTypeAdapter(Gson gson, TypeAdapterFactory skipPast, Class<T> type) {
+        this.gson = gson;
+        this.skipPast = skipPast;
+        this.type = type;
+    }
+
+    /**
+     * 交给Gson的反射适配器读取
+     */
+    protected final T readReflective(JsonReader in) throws IOException {
+        TypeAdapter<T> adapter = reflective;
+        if (null == adapter) {
+            adapter = gson.getDelegateAdapter(skipPast, TypeToken.get(type));
+            reflective = adapter;
+        }
+        return adapter.read(in);
+    }
+
+    /**
+     * 声明类型不是final时按运行时类型选择适配器，与Gson反射序列化一致
+     */
+    @SuppressWarnings("unchecked")
+    protected final <V> void writeRuntime(JsonWriter out, TypeAdapter<V> declared, Class<?> declaredType, V value) throws IOException {
+        if (null == value || value.getClass() == declaredType) {
+            declared.write(out, value);
+        } else {
+            ((TypeAdapter<V>) gson.getAdapter(value.getClass())).write(out, value);
+        }
+    }
+
+    protected static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return token == JsonToken.BOOLEAN ? Boolean.toString(in.nextBoolean()) : in.nextString();
+    }
+
+    protected static Boolean readBoolean(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return token == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+    }
+
+    protected static Integer readInt(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    protected static Long readLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.app.library.json;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapterFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 编译期生成的TypeAdapter注册入口
+ * JsonAdapterProcessor为com.app.domain、com.app.exception下的类生成TypeAdapter，
+ * 并生成汇总的JsonAdapterRegistry；没有经过注解处理器编译时找不到注册表，全部使用Gson反射
+ */
+public final class JsonAdapters {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonAdapters.class);
+    public static final String REGISTRY = "com.app.library.json.JsonAdapterRegistry";
+
+    private JsonAdapters() {
+    }
+
+    public static GsonBuilder register(GsonBuilder builder) {
+        TypeAdapterFactory registry = registry();
+        return null == registry ? builder : builder.registerTypeAdapterFactory(registry);
+    }
+
+    private static TypeAdapterFactory registry() {
+        try {
+            return (TypeAdapterFactory) Class.forName(REGISTRY).newInstance();
+        } catch (ClassNotFoundException e) {
+            LOGGER.info("generated json adapters not found, use gson reflection");
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.warn("load generated json adapters error, use gson reflection", e);
+            return null;
+        }
+    }
+}
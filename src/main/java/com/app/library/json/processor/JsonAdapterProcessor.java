@@ -0,0 +1,517 @@
+package com.app.library.json.processor;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 编译期为com.app.domain、com.app.exception下的类生成Gson TypeAdapter
+ * 字段顺序、@SerializedName、null处理与Gson反射一致(子类字段在前)，
+ * 生成的代码优先直接访问字段，字段不可见时使用getter/setter；
+ * 无法生成的类(泛型、字段不可访问、字段名重复等)不生成，运行时继续使用Gson反射。
+ * 需要单独先编译本类，再以 -processor 参与其余代码的编译，见pom.xml中maven-compiler-plugin的两次执行
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(JsonAdapterProcessor.OPTION_PACKAGES)
+public class JsonAdapterProcessor extends AbstractProcessor {
+    public static final String OPTION_PACKAGES = "json.adapter.packages";
+    private static final String DEFAULT_PACKAGES = "com.app.domain,com.app.exception";
+    private static final String SUFFIX = "_JsonAdapter";
+    private static final String BASE = "com.app.library.json.GeneratedTypeAdapter";
+    private static final String REGISTRY_PACKAGE = "com.app.library.json";
+    private static final String REGISTRY_NAME = "JsonAdapterRegistry";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+    private String[] packages;
+    private boolean generated;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        filer = processingEnv.getFiler();
+        messager = processingEnv.getMessager();
+        String option = processingEnv.getOptions().get(OPTION_PACKAGES);
+        packages = (null == option || option.trim().isEmpty() ? DEFAULT_PACKAGES : option).split(",");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * 第一轮即可看到全部源码，生成适配器和注册表后不再处理后续轮次(生成的适配器本身)
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (generated || roundEnv.processingOver()) {
+            return false;
+        }
+        List<TypeElement> candidates = new ArrayList<>();
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element, candidates);
+        }
+        if (candidates.isEmpty()) {
+            return false;
+        }
+        generated = true;
+        List<String[]> registered = new ArrayList<>();
+        for (TypeElement type : candidates) {
+            ClassModel model = analyze(type);
+            if (null == model) {
+                continue;
+            }
+            try {
+                writeAdapter(model);
+                registered.add(new String[]{model.targetName, model.packageName + "." + model.adapterName});
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "write json adapter error: " + e.getMessage(), type);
+            }
+        }
+        try {
+            writeRegistry(registered);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "write json adapter registry error: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private void collect(Element element, List<TypeElement> candidates) {
+        if (element.getKind() != ElementKind.CLASS) {
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        String name = type.getQualifiedName().toString();
+        if (inPackages(name) && !name.endsWith(SUFFIX)) {
+            candidates.add(type);
+        }
+        for (TypeElement member : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (member.getModifiers().contains(Modifier.STATIC)) {
+                collect(member, candidates);
+            }
+        }
+    }
+
+    private boolean inPackages(String name) {
+        for (String prefix : packages) {
+            String p = prefix.trim();
+            if (!p.isEmpty() && name.startsWith(p + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 不能生成时返回null
+     */
+    private ClassModel analyze(TypeElement type) {
+        Set<Modifier> modifiers = type.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)
+                || !type.getTypeParameters().isEmpty() || null != type.getAnnotation(JsonAdapter.class)
+                || types.isAssignable(type.asType(), elements.getTypeElement("java.lang.Throwable").asType())) {
+            return null;
+        }
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        ClassModel model = new ClassModel(type, packageName);
+        Set<String> names = new HashSet<>();
+        TypeElement current = type;
+        while (null != current && !"java.lang.Object".equals(current.getQualifiedName().toString())) {
+            if (!current.getTypeParameters().isEmpty()) {
+                return skip(type, "generic superclass " + current.getQualifiedName());
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> fieldModifiers = field.getModifiers();
+                if (fieldModifiers.contains(Modifier.STATIC) || fieldModifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                Property property = property(type, packageName, field);
+                if (null == property) {
+                    return skip(type, "field " + current.getSimpleName() + "." + field.getSimpleName() + " is not accessible");
+                }
+                for (String name : property.names()) {
+                    if (!names.add(name)) {
+                        return skip(type, "declares multiple json fields named " + name);
+                    }
+                }
+                model.properties.add(property);
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        if (model.properties.isEmpty()) {
+            return null;
+        }
+        model.readable = hasConstructor(type, packageName);
+        for (Property property : model.properties) {
+            model.readable &= null != property.setter;
+        }
+        return model;
+    }
+
+    private ClassModel skip(TypeElement type, String reason) {
+        messager.printMessage(Diagnostic.Kind.NOTE, "json adapter not generated, use gson reflection: " + reason, type);
+        return null;
+    }
+
+    private Property property(TypeElement owner, String packageName, VariableElement field) {
+        TypeMirror fieldType = field.asType();
+        if (null != field.getAnnotation(JsonAdapter.class) || !supported(fieldType)) {
+            return null;
+        }
+        Property property = new Property(field, fieldType);
+        SerializedName serializedName = field.getAnnotation(SerializedName.class);
+        if (null != serializedName) {
+            property.name = serializedName.value();
+            property.alternates = serializedName.alternate();
+        }
+        String fieldName = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        if (accessible(field, packageName)) {
+            property.getter = fieldName;
+            if (!field.getModifiers().contains(Modifier.FINAL)) {
+                property.setter = fieldName + " = ";
+            }
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(owner))) {
+            if (method.getModifiers().contains(Modifier.STATIC) || !accessible(method, packageName)) {
+                continue;
+            }
+            String name = method.getSimpleName().toString();
+            if (null == property.getter && method.getParameters().isEmpty()
+                    && types.isSameType(method.getReturnType(), fieldType)
+                    && (name.equals("get" + capitalized) || fieldType.getKind() == TypeKind.BOOLEAN && name.equals("is" + capitalized))) {
+                property.getter = name + "()";
+            } else if (null == property.setter && name.equals("set" + capitalized) && method.getParameters().size() == 1
+                    && types.isSameType(method.getParameters().get(0).asType(), fieldType)) {
+                property.setter = name + "(";
+            }
+        }
+        return null == property.getter ? null : property;
+    }
+
+    /**
+     * 生成的类与目标类在同一个包中
+     */
+    private boolean accessible(Element member, String packageName) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        PackageElement declared = elements.getPackageOf(member);
+        return declared.getQualifiedName().contentEquals(packageName);
+    }
+
+    private boolean hasConstructor(TypeElement type, String packageName) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && accessible(constructor, packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean supported(TypeMirror type) {
+        switch (type.getKind()) {
+            case DECLARED:
+                for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                    if (argument.getKind() != TypeKind.WILDCARD && !supported(argument)) {
+                        return false;
+                    }
+                }
+                return true;
+            case ARRAY:
+                return supported(((ArrayType) type).getComponentType());
+            case TYPEVAR:
+            case ERROR:
+                return false;
+            default:
+                return type.getKind().isPrimitive();
+        }
+    }
+
+    private void writeAdapter(ClassModel model) throws IOException {
+        StringBuilder fields = new StringBuilder();
+        StringBuilder init = new StringBuilder();
+        StringBuilder write = new StringBuilder();
+        StringBuilder read = new StringBuilder();
+        int index = 0;
+        for (Property property : model.properties) {
+            String get = "value." + property.getter;
+            String name = quote(property.name);
+            Direct direct = direct(property.type);
+            write.append("        out.name(").append(name).append(");\n");
+            if (null != direct) {
+                write.append("        out.value(").append(get).append(");\n");
+            } else {
+                String adapter = "adapter" + index++;
+                String adapterType = adapterType(property.type);
+                fields.append("    private final TypeAdapter<").append(adapterType).append("> ").append(adapter).append(";\n");
+                init.append("        this.").append(adapter).append(" = gson.getAdapter(").append(typeToken(property.type, adapterType)).append(");\n");
+                if (runtimeTyped(property.type)) {
+                    write.append("        writeRuntime(out, ").append(adapter).append(", ")
+                            .append(types.erasure(property.type)).append(".class, ").append(get).append(");\n");
+                } else {
+                    write.append("        ").append(adapter).append(".write(out, ").append(get).append(");\n");
+                }
+                property.adapter = adapter;
+                property.adapterType = adapterType;
+            }
+            if (model.readable) {
+                read.append(readCase(property, direct));
+            }
+        }
+        String target = model.targetName;
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(model.packageName).append(";\n\n")
+                .append("import com.google.gson.Gson;\n")
+                .append("import com.google.gson.TypeAdapter;\n")
+                .append("import com.google.gson.TypeAdapterFactory;\n")
+                .append("import com.google.gson.reflect.TypeToken;\n")
+                .append("import com.google.gson.stream.JsonReader;\n")
+                .append("import com.google.gson.stream.JsonToken;\n")
+                .append("import com.google.gson.stream.JsonWriter;\n\n")
+                .append("import java.io.IOException;\n\n")
+                .append("/**\n * 由JsonAdapterProcessor根据").append(target).append("生成，请勿修改\n */\n")
+                .append("public final class ").append(model.adapterName).append(" extends ").append(BASE).append("<").append(target).append("> {\n")
+                .append(fields).append(fields.length() > 0 ? "\n" : "")
+                .append("    public ").append(model.adapterName).append("(Gson gson, TypeAdapterFactory skipPast) {\n")
+                .append("        super(gson, skipPast, ").append(target).append(".class);\n")
+                .append(init)
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public void write(JsonWriter out, ").append(target).append(" value) throws IOException {\n")
+                .append("        if (null == value) {\n            out.nullValue();\n            return;\n        }\n")
+                .append("        out.beginObject();\n")
+                .append(write)
+                .append("        out.endObject();\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public ").append(target).append(" read(JsonReader in) throws IOException {\n");
+        if (model.readable) {
+            source.append("        if (in.peek() == JsonToken.NULL) {\n            in.nextNull();\n            return null;\n        }\n")
+                    .append("        ").append(target).append(" value = new ").append(target).append("();\n")
+                    .append("        in.beginObject();\n")
+                    .append("        while (in.hasNext()) {\n")
+                    .append("            switch (in.nextName()) {\n")
+                    .append(read)
+                    .append("                default:\n                    in.skipValue();\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        in.endObject();\n")
+                    .append("        return value;\n");
+        } else {
+            source.append("        return readReflective(in);\n");
+        }
+        source.append("    }\n}\n");
+        try (Writer writer = filer.createSourceFile(model.packageName + "." + model.adapterName, model.type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private String readCase(Property property, Direct direct) {
+        StringBuilder read = new StringBuilder();
+        for (String name : property.names()) {
+            read.append("                case ").append(quote(name)).append(":\n");
+        }
+        String set = "value." + property.setter;
+        String close = property.setter.endsWith("(") ? ")" : "";
+        boolean primitive = property.type.getKind().isPrimitive();
+        String expression = null != direct ? direct.read + "(in)" : property.adapter + ".read(in)";
+        if (primitive) {
+            String boxed = null != direct ? direct.boxed : property.adapterType;
+            read.append("                {\n")
+                    .append("                    ").append(boxed).append(" v = ").append(expression).append(";\n")
+                    .append("                    if (null != v) {\n")
+                    .append("                        ").append(set).append("v").append(close).append(";\n")
+                    .append("                    }\n")
+                    .append("                    break;\n")
+                    .append("                }\n");
+        } else {
+            read.append("                    ").append(set).append(expression).append(close).append(";\n")
+                    .append("                    break;\n");
+        }
+        return read.toString();
+    }
+
+    /**
+     * 可以直接调用JsonWriter.value(...)、GeneratedTypeAdapter.readXxx读写的类型
+     */
+    private Direct direct(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return new Direct("readBoolean", "Boolean");
+            case INT:
+                return new Direct("readInt", "Integer");
+            case LONG:
+                return new Direct("readLong", "Long");
+            case DECLARED:
+                switch (types.erasure(type).toString()) {
+                    case "java.lang.String":
+                        return new Direct("readString", "String");
+                    case "java.lang.Boolean":
+                        return new Direct("readBoolean", "Boolean");
+                    case "java.lang.Integer":
+                        return new Direct("readInt", "Integer");
+                    case "java.lang.Long":
+                        return new Direct("readLong", "Long");
+                    default:
+                        return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    private String adapterType(TypeMirror type) {
+        return type.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) type).getQualifiedName().toString()
+                : type.toString();
+    }
+
+    private String typeToken(TypeMirror type, String adapterType) {
+        if (type.getKind().isPrimitive() || types.isSameType(type, types.erasure(type))) {
+            return adapterType + ".class";
+        }
+        return "new TypeToken<" + adapterType + ">() {\n        }";
+    }
+
+    /**
+     * 非final的普通类按运行时类型序列化，参数化类型与Gson一样使用声明类型
+     */
+    private boolean runtimeTyped(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED || !((DeclaredType) type).getTypeArguments().isEmpty()) {
+            return false;
+        }
+        Element element = ((DeclaredType) type).asElement();
+        return element.getKind() != ElementKind.ENUM && !element.getModifiers().contains(Modifier.FINAL);
+    }
+
+    private void writeRegistry(List<String[]> registered) throws IOException {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(REGISTRY_PACKAGE).append(";\n\n")
+                .append("import com.google.gson.Gson;\n")
+                .append("import com.google.gson.TypeAdapter;\n")
+                .append("import com.google.gson.TypeAdapterFactory;\n")
+                .append("import com.google.gson.reflect.TypeToken;\n\n")
+                .append("/**\n * 由JsonAdapterProcessor生成的TypeAdapter注册表，请勿修改\n")
+                .append(" * 只匹配生成时已知的类，子类和其他类型返回null，由Gson反射处理\n */\n")
+                .append("public final class ").append(REGISTRY_NAME).append(" implements TypeAdapterFactory {\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {\n")
+                .append("        Class<? super T> raw = type.getRawType();\n");
+        for (String[] entry : registered) {
+            source.append("        if (raw == ").append(entry[0]).append(".class) {\n")
+                    .append("            return (TypeAdapter<T>) new ").append(entry[1]).append("(gson, this);\n")
+                    .append("        }\n");
+        }
+        source.append("        return null;\n")
+                .append("    }\n}\n");
+        try (Writer writer = filer.createSourceFile(REGISTRY_PACKAGE + "." + REGISTRY_NAME).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static final class ClassModel {
+        final TypeElement type;
+        final String packageName;
+        final String targetName;
+        final String adapterName;
+        final List<Property> properties = new ArrayList<>();
+        boolean readable;
+
+        ClassModel(TypeElement type, String packageName) {
+            this.type = type;
+            this.packageName = packageName;
+            this.targetName = type.getQualifiedName().toString();
+            String binaryName = targetName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+            this.adapterName = binaryName.replace('.', '_') + SUFFIX;
+        }
+    }
+
+    private static final class Property {
+        final TypeMirror type;
+        String name;
+        String[] alternates = new String[0];
+        String getter;
+        String setter;
+        String adapter;
+        String adapterType;
+
+        Property(VariableElement field, TypeMirror type) {
+            this.type = type;
+            this.name = field.getSimpleName().toString();
+        }
+
+        Set<String> names() {
+            Set<String> names = new LinkedHashSet<>();
+            names.add(name);
+            Collections.addAll(names, alternates);
+            return names;
+        }
+    }
+
+    private static final class Direct {
+        final String read;
+        final String boxed;
+
+        Direct(String read, String boxed) {
+            this.read = read;
+            this.boxed = boxed;
+        }
+    }
+}
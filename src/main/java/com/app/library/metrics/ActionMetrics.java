@@ -0,0 +1,74 @@
+package com.app.library.metrics;
+
+import com.app.config.CommonConfig;
+import com.app.util.ConfigStore;
+
+/**
+ * BaseAction各阶段耗时统计
+ * 每个事件类在第一次执行时创建一组直方图(action.类名.阶段)，之后通过ClassValue直接取得；
+ * metrics.action.enabled=false 时 timers 返回null，记录调用全部跳过
+ */
+public final class ActionMetrics {
+    public static final boolean ENABLED = ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get()
+            .getBoolean("metrics.action.enabled", true);
+
+    public enum Stage {
+        INPUT_VALIDATE("inputValidate"),
+        PERMISSION_VALIDATE("permissionValidate"),
+        ADDITIONAL_VALIDATE("additionalValidate"),
+        START("start"),
+        FORMAT_OUTPUT("formatOutput"),
+        LOG_SYNC_ACTION("logSyncAction"),
+        TOTAL("total");
+
+        private final String metricName;
+
+        Stage(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private static final ClassValue<Timers> TIMERS = new ClassValue<Timers>() {
+        @Override
+        protected Timers computeValue(Class<?> type) {
+            return new Timers(type);
+        }
+    };
+
+    private ActionMetrics() {
+    }
+
+    public static Timers timers(Class<?> actionClass) {
+        return ENABLED ? TIMERS.get(actionClass) : null;
+    }
+
+    /**
+     * 记录从start到当前的耗时
+     * @return 当前时间，作为下一阶段的开始
+     */
+    public static long record(Timers timers, Stage stage, long start) {
+        if (null == timers) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        timers.histograms[stage.ordinal()].record(now - start);
+        return now;
+    }
+
+    public static long now(Timers timers) {
+        return null == timers ? 0 : System.nanoTime();
+    }
+
+    public static final class Timers {
+        private final LatencyHistogram[] histograms;
+
+        private Timers(Class<?> actionClass) {
+            Stage[] stages = Stage.values();
+            histograms = new LatencyHistogram[stages.length];
+            String prefix = "action." + actionClass.getSimpleName() + ".";
+            for (Stage stage : stages) {
+                histograms[stage.ordinal()] = MetricsRegistry.histogram(prefix + stage.metricName);
+            }
+        }
+    }
+}
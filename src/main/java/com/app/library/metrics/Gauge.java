@@ -0,0 +1,9 @@
+package com.app.library.metrics;
+
+/**
+ * 读取时计算的指标，如队列长度
+ */
+@FunctionalInterface
+public interface Gauge {
+    Number value();
+}
@@ -0,0 +1,59 @@
+package com.app.library.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 直方图某一时刻的统计结果，时间单位为微秒
+ */
+public class HistogramSnapshot {
+    private final long count;
+    private final double mean;
+    private final long max;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+
+    HistogramSnapshot(long count, double meanNanos, long maxNanos, long p50Nanos, long p90Nanos,
+                      long p99Nanos, long p999Nanos) {
+        this.count = count;
+        this.mean = Math.round(meanNanos / 100.0) / 10.0;
+        this.max = toMicros(maxNanos);
+        this.p50 = toMicros(p50Nanos);
+        this.p90 = toMicros(p90Nanos);
+        this.p99 = toMicros(p99Nanos);
+        this.p999 = toMicros(p999Nanos);
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+}
@@ -0,0 +1,77 @@
+package com.app.library.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * 以动态MBean暴露MetricsRegistry中的全部指标，Jolokia可直接读取
+ * 属性在每次读取时按当前注册的指标生成，新注册的指标不需要重新注册MBean
+ */
+final class MetricsJmxReporter implements DynamicMBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsJmxReporter.class);
+    static final String OBJECT_NAME = "com.app:type=Metrics";
+
+    private MetricsJmxReporter() {
+    }
+
+    static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsJmxReporter(), new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            LOGGER.warn("register metrics mbean error: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = MetricsRegistry.flatten().get(attribute);
+        if (null == value) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Number> values = MetricsRegistry.flatten();
+        AttributeList list = new AttributeList();
+        for (String name : attributes) {
+            Number value = values.get(name);
+            if (null != value) {
+                list.add(new Attribute(name, value));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("metrics are read only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException {
+        throw new MBeanException(new UnsupportedOperationException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Number> values = MetricsRegistry.flatten();
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+        int i = 0;
+        for (Map.Entry<String, Number> entry : values.entrySet()) {
+            attributes[i++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+                    entry.getKey(), true, false, false);
+        }
+        return new MBeanInfo(getClass().getName(), "application metrics", attributes, null, null, null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.app.library.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内的指标注册表
+ * 指标按名称注册一次，热路径上持有指标对象直接记录，不再查找；
+ * 通过 /metrics 接口和JMX(com.app:type=Metrics)读取
+ */
+public final class MetricsRegistry {
+    private static final ConcurrentMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+
+    static {
+        MetricsJmxReporter.register();
+    }
+
+    private MetricsRegistry() {
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = HISTOGRAMS.get(name);
+        return null != histogram ? histogram : HISTOGRAMS.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public static LongAdder counter(String name) {
+        LongAdder counter = COUNTERS.get(name);
+        return null != counter ? counter : COUNTERS.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * 同名gauge重复注册时以最后一次为准
+     */
+    public static void gauge(String name, Gauge gauge) {
+        GAUGES.put(name, gauge);
+    }
+
+    /**
+     * 所有指标的当前值，按名称排序
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        HISTOGRAMS.forEach((name, histogram) -> result.put(name, histogram.snapshot()));
+        COUNTERS.forEach((name, counter) -> result.put(name, counter.sum()));
+        GAUGES.forEach((name, gauge) -> result.put(name, gauge.value()));
+        return result;
+    }
+
+    /**
+     * 按名称前缀过滤
+     */
+    public static Map<String, Object> snapshot(String prefix) {
+        Map<String, Object> result = snapshot();
+        if (null != prefix && !prefix.isEmpty()) {
+            result.keySet().removeIf(name -> !name.startsWith(prefix));
+        }
+        return result;
+    }
+
+    /**
+     * 展开为单值指标，直方图拆分为 name.count、name.p99 等
+     */
+    static Map<String, Number> flatten() {
+        Map<String, Number> result = new TreeMap<>();
+        HISTOGRAMS.forEach((name, histogram) -> {
+            HistogramSnapshot snapshot = histogram.snapshot();
+            result.put(name + ".count", snapshot.getCount());
+            result.put(name + ".mean", snapshot.getMean());
+            result.put(name + ".max", snapshot.getMax());
+            result.put(name + ".p50", snapshot.getP50());
+            result.put(name + ".p90", snapshot.getP90());
+            result.put(name + ".p99", snapshot.getP99());
+            result.put(name + ".p999", snapshot.getP999());
+        });
+        COUNTERS.forEach((name, counter) -> result.put(name, counter.sum()));
+        GAUGES.forEach((name, gauge) -> result.put(name, gauge.value()));
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package com.app.library.provide;
+
+import com.app.domain.HttpStatusCode;
+import com.app.domain.imput.BaseInput;
+import com.app.domain.output.BaseOutput;
+import com.app.exception.AppException;
+import com.app.exception.BaseInfo;
+import com.google.gson.JsonParseException;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * application/cbor 的读写，供内部服务之间调用
+ * 使用与GsonMessageBodyHandler相同的Gson实例，字段映射完全一致；
+ * 资源在@Produces/@Consumes中声明 APPLICATION_CBOR 后，按Accept/Content-Type选择，默认仍为Json。
+ * 只处理BaseOutput、BaseInfo(ErrorInfo)的输出和BaseInput的输入
+ */
+@Provider
+@Produces(CborMessageBodyHandler.APPLICATION_CBOR)
+@Consumes(CborMessageBodyHandler.APPLICATION_CBOR)
+public final class CborMessageBodyHandler implements MessageBodyWriter<Object>, MessageBodyReader<Object> {
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final MediaType APPLICATION_CBOR_TYPE = new MediaType("application", "cbor");
+
+    /**
+     * Accept中CBOR出现在Json之前时，异常等不经过资源方法协商的响应也使用CBOR
+     */
+    public static boolean prefers(String accept) {
+        if (null == accept) {
+            return false;
+        }
+        int cbor = accept.indexOf(APPLICATION_CBOR);
+        int json = accept.indexOf(MediaType.APPLICATION_JSON);
+        return cbor >= 0 && (json < 0 || cbor < json);
+    }
+
+    private static Type bindType(Class<?> type, Type genericType) {
+        return null == genericType ? type : genericType;
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return APPLICATION_CBOR_TYPE.isCompatible(mediaType) && BaseInput.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, String> httpHeaders,
+                           InputStream entityStream) throws IOException, WebApplicationException {
+        try {
+            return GsonMessageBodyHandler.getGson().fromJson(CborParser.parse(entityStream), bindType(type, genericType));
+        } catch (IOException | JsonParseException e) {
+            throw new AppException("request body is not valid cbor", HttpStatusCode.BAD_REQUEST, e);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return APPLICATION_CBOR_TYPE.isCompatible(mediaType)
+                && (BaseOutput.class.isAssignableFrom(type) || BaseInfo.class.isAssignableFrom(type));
+    }
+
+    @Override
+    public long getSize(Object object, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object object, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
+        try (CborWriter writer = new CborWriter(entityStream)) {
+            GsonMessageBodyHandler.getGson().toJson(object, bindType(type, genericType), writer);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.app.library.provide;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 把CBOR(RFC 7049)解析为Gson的JsonElement，再由Gson按类型绑定，字段映射与Json相同
+ * 字节串按Gson对byte[]的表示转换为数字数组；非字符串的map key转换为字符串
+ */
+public final class CborParser {
+    private static final int MAX_DEPTH = 128;
+    private static final int CHUNK = 8192;
+    private static final int BREAK = 0xFF;
+
+    private final InputStream in;
+
+    private CborParser(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @throws IOException 数据不是合法的CBOR或提前结束
+     */
+    public static JsonElement parse(InputStream in) throws IOException {
+        CborParser parser = new CborParser(in);
+        int initial = parser.in.read();
+        if (initial < 0) {
+            return JsonNull.INSTANCE;
+        }
+        return parser.read(initial, 0);
+    }
+
+    private JsonElement read(int initial, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("cbor nesting too deep");
+        }
+        int major = initial >>> 5;
+        int info = initial & 0x1F;
+        switch (major) {
+            case 0:
+                return unsigned(length(info));
+            case 1: {
+                long n = length(info);
+                return n >= 0 ? new JsonPrimitive(-1 - n)
+                        : new JsonPrimitive(BigInteger.ONE.negate().subtract(toUnsigned(n)));
+            }
+            case 2: {
+                byte[] bytes = bytes(2, info);
+                JsonArray array = new JsonArray();
+                for (byte b : bytes) {
+                    array.add(b);
+                }
+                return array;
+            }
+            case 3:
+                return new JsonPrimitive(new String(bytes(3, info), StandardCharsets.UTF_8));
+            case 4: {
+                JsonArray array = new JsonArray();
+                if (info == 31) {
+                    for (int b = next(); b != BREAK; b = next()) {
+                        array.add(read(b, depth + 1));
+                    }
+                } else {
+                    for (long i = length(info); i > 0; i--) {
+                        array.add(read(next(), depth + 1));
+                    }
+                }
+                return array;
+            }
+            case 5: {
+                JsonObject object = new JsonObject();
+                if (info == 31) {
+                    for (int b = next(); b != BREAK; b = next()) {
+                        object.add(key(read(b, depth + 1)), read(next(), depth + 1));
+                    }
+                } else {
+                    for (long i = length(info); i > 0; i--) {
+                        object.add(key(read(next(), depth + 1)), read(next(), depth + 1));
+                    }
+                }
+                return object;
+            }
+            case 6:
+                // 忽略tag，只取内容
+                length(info);
+                return read(next(), depth + 1);
+            default:
+                return simple(info);
+        }
+    }
+
+    private JsonElement simple(int info) throws IOException {
+        switch (info) {
+            case 20:
+                return new JsonPrimitive(false);
+            case 21:
+                return new JsonPrimitive(true);
+            case 22:
+            case 23:
+                return JsonNull.INSTANCE;
+            case 25:
+                return new JsonPrimitive(halfToFloat((next() << 8) | next()));
+            case 26:
+                return new JsonPrimitive(Float.intBitsToFloat(readInt()));
+            case 27:
+                return new JsonPrimitive(Double.longBitsToDouble(((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL)));
+            default:
+                throw new IOException("unsupported cbor simple value: " + info);
+        }
+    }
+
+    private byte[] bytes(int major, int info) throws IOException {
+        if (info != 31) {
+            return readBytes(length(info));
+        }
+        // 不定长字符串由若干个同类型的定长片段组成
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int b = next(); b != BREAK; b = next()) {
+            if (b >>> 5 != major || (b & 0x1F) == 31) {
+                throw new IOException("invalid cbor string chunk");
+            }
+            byte[] chunk = readBytes(length(b & 0x1F));
+            out.write(chunk, 0, chunk.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 按块读取，长度字段不可信，不按声明的长度一次性分配
+     */
+    private byte[] readBytes(long length) throws IOException {
+        if (length < 0 || length > Integer.MAX_VALUE - 8) {
+            throw new IOException("cbor string too long");
+        }
+        int remaining = (int) length;
+        if (remaining <= CHUNK) {
+            byte[] bytes = new byte[remaining];
+            readFully(bytes, remaining);
+            return bytes;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(CHUNK);
+        byte[] chunk = new byte[CHUNK];
+        while (remaining > 0) {
+            int n = Math.min(CHUNK, remaining);
+            readFully(chunk, n);
+            out.write(chunk, 0, n);
+            remaining -= n;
+        }
+        return out.toByteArray();
+    }
+
+    private void readFully(byte[] bytes, int length) throws IOException {
+        int off = 0;
+        while (off < length) {
+            int n = in.read(bytes, off, length - off);
+            if (n < 0) {
+                throw new EOFException("unexpected end of cbor");
+            }
+            off += n;
+        }
+    }
+
+    private long length(int info) throws IOException {
+        if (info < 24) {
+            return info;
+        }
+        switch (info) {
+            case 24:
+                return next();
+            case 25:
+                return (next() << 8) | next();
+            case 26:
+                return readInt() & 0xFFFFFFFFL;
+            case 27:
+                return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+            default:
+                throw new IOException("invalid cbor length: " + info);
+        }
+    }
+
+    private int readInt() throws IOException {
+        return (next() << 24) | (next() << 16) | (next() << 8) | next();
+    }
+
+    private int next() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("unexpected end of cbor");
+        }
+        return b;
+    }
+
+    private static JsonPrimitive unsigned(long n) {
+        return n >= 0 ? new JsonPrimitive(n) : new JsonPrimitive(toUnsigned(n));
+    }
+
+    private static BigInteger toUnsigned(long n) {
+        return BigInteger.valueOf(n & Long.MAX_VALUE).setBit(63);
+    }
+
+    private static String key(JsonElement key) {
+        return key.isJsonPrimitive() ? key.getAsString() : key.toString();
+    }
+
+    private static float halfToFloat(int half) {
+        int exponent = (half >>> 10) & 0x1F;
+        int mantissa = half & 0x3FF;
+        float value;
+        if (exponent == 0) {
+            value = mantissa * (float) Math.pow(2, -24);
+        } else if (exponent == 31) {
+            value = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+        } else {
+            value = (float) Math.pow(2, exponent - 15) * (1 + mantissa / 1024f);
+        }
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+}
@@ -0,0 +1,310 @@
+package com.app.library.provide;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 以CBOR(RFC 7049)格式输出的JsonWriter
+ * Gson的TypeAdapter只和JsonWriter交互，传入这个Writer即可复用同一套字段映射(包括@SerializedName)；
+ * 对象和数组使用不定长编码，不需要预先知道元素个数，可以边序列化边写出。
+ * null字段的处理与JsonWriter一致，serializeNulls为false时连同字段名一起省略
+ * 父类构造需要Writer，传入的UNUSED被调用即抛UnsupportedOperationException：这里覆盖了Gson 2.7
+ * JsonWriter全部会写出内容的public方法，升级Gson时如果JsonWriter新增了写出方法(如2.9.1的value(float))
+ * 必须在这里覆盖，否则会落到父类实现并抛出异常，CborWriterTest会检查这一点
+ */
+public class CborWriter extends JsonWriter {
+    private static final Writer UNUSED = new Writer() {
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int INDEFINITE = 31;
+    private static final int FALSE = 0xF4;
+    private static final int TRUE = 0xF5;
+    private static final int NULL = 0xF6;
+    private static final int FLOAT = 0xFA;
+    private static final int DOUBLE = 0xFB;
+    private static final int BREAK = 0xFF;
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[1024];
+    private int count;
+    private String deferredName;
+
+    public CborWriter(OutputStream out) {
+        super(UNUSED);
+        this.out = out;
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        writeByte(MAJOR_ARRAY << 5 | INDEFINITE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        writeByte(BREAK);
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        writeByte(MAJOR_MAP << 5 | INDEFINITE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        deferredName = null;
+        writeByte(BREAK);
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        if (null == name) {
+            throw new NullPointerException("name == null");
+        }
+        if (null != deferredName) {
+            throw new IllegalStateException("name already set: " + deferredName);
+        }
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (null == value) {
+            return nullValue();
+        }
+        writeDeferredName();
+        writeText(value);
+        return this;
+    }
+
+    /**
+     * 原始Json文本先解析再按CBOR写出
+     */
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        if (null == value) {
+            return nullValue();
+        }
+        GsonMessageBodyHandler.getGson().toJson(new JsonParser().parse(value), this);
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (null != deferredName) {
+            if (!getSerializeNulls()) {
+                deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+        }
+        writeByte(NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        writeByte(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        if (null == value) {
+            return nullValue();
+        }
+        return value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        writeDeferredName();
+        writeDouble(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        writeDeferredName();
+        writeLong(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (null == value) {
+            return nullValue();
+        }
+        writeDeferredName();
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof AtomicInteger || value instanceof AtomicLong) {
+            writeLong(value.longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeDouble(value.doubleValue());
+        } else if (value instanceof BigInteger && ((BigInteger) value).bitLength() <= 64) {
+            writeBigInteger((BigInteger) value);
+        } else {
+            // BigDecimal、Gson的LazilyParsedNumber等，能表示为整数时按整数写出
+            String text = value.toString();
+            try {
+                writeLong(Long.parseLong(text));
+            } catch (NumberFormatException e) {
+                writeDouble(Double.parseDouble(text));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (null != deferredName) {
+            String name = deferredName;
+            deferredName = null;
+            writeText(name);
+        }
+    }
+
+    private void writeText(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeHead(MAJOR_TEXT, bytes.length);
+        writeBytes(bytes);
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value >= 0) {
+            writeHead(MAJOR_UNSIGNED, value);
+        } else {
+            writeHead(MAJOR_NEGATIVE, -1 - value);
+        }
+    }
+
+    /**
+     * CBOR整数为64位无符号数加符号，[-2^64, 2^64)内的BigInteger都能精确写出
+     */
+    private void writeBigInteger(BigInteger value) throws IOException {
+        if (value.signum() >= 0) {
+            writeHead(MAJOR_UNSIGNED, value.longValue());
+        } else {
+            writeHead(MAJOR_NEGATIVE, value.not().longValue());
+        }
+    }
+
+    /**
+     * 不损失精度时使用4字节单精度
+     */
+    private void writeDouble(double value) throws IOException {
+        float single = (float) value;
+        if (single == value || Double.isNaN(value)) {
+            writeByte(FLOAT);
+            writeInt(Float.floatToIntBits(single));
+        } else {
+            writeByte(DOUBLE);
+            long bits = Double.doubleToLongBits(value);
+            writeInt((int) (bits >>> 32));
+            writeInt((int) bits);
+        }
+    }
+
+    /**
+     * value按64位无符号数处理
+     */
+    private void writeHead(int major, long value) throws IOException {
+        int type = major << 5;
+        if (value < 0) {
+            writeByte(type | 27);
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        } else if (value < 24) {
+            writeByte(type | (int) value);
+        } else if (value <= 0xFF) {
+            writeByte(type | 24);
+            writeByte((int) value);
+        } else if (value <= 0xFFFF) {
+            writeByte(type | 25);
+            writeByte((int) (value >>> 8));
+            writeByte((int) value);
+        } else if (value <= 0xFFFFFFFFL) {
+            writeByte(type | 26);
+            writeInt((int) value);
+        } else {
+            writeByte(type | 27);
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        writeByte(value >>> 24);
+        writeByte(value >>> 16);
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (count == buf.length) {
+            flushBuffer();
+        }
+        buf[count++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buf.length - count) {
+            flushBuffer();
+            if (bytes.length > buf.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buf, count, bytes.length);
+        count += bytes.length;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buf, 0, count);
+            count = 0;
+        }
+    }
+}
@@ -1,66 +1,91 @@
 package com.app.library.provide;
 
+import com.app.library.json.JsonAdapters;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
 import java.io.*;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 
 @Provider
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public final class GsonMessageBodyHandler implements MessageBodyWriter<Object>, MessageBodyReader<Object> {
 
-    private static final String UTF_8 = "UTF-8";
+    /**
+     * 直接通过OutputStreamWriter写出，响应总是chunked
+     */
+    public static final String MODE_DEFAULT = "default";
+    /**
+     * 先写入线程复用的UTF-8缓冲，小于阈值的响应带上Content-Length
+     */
+    public static final String MODE_STREAM = "stream";
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
 
-    private Gson gson;
+    /**
+     * Gson本身线程安全，并且按类型缓存TypeAdapter，全局共享一个实例即可；
+     * 编译期生成的TypeAdapter优先，其余类型使用反射
+     */
+    private static final Gson GSON = JsonAdapters.register(new GsonBuilder()).create();
 
-    private Gson getGson() throws WebApplicationException {
-        try {
-            if (gson == null) {
-                GsonBuilder gsonbuilder = new GsonBuilder();
-                gson = gsonbuilder.create();
-            }
-        } catch (Exception e) {
-            throw new WebApplicationException(e.getMessage(), e);
-        }
-        return gson;
+    private final boolean buffered;
+    private final int bufferSize;
+
+    public GsonMessageBodyHandler() {
+        this(MODE_DEFAULT, DEFAULT_BUFFER_SIZE);
+    }
+
+    public GsonMessageBodyHandler(String mode, int bufferSize) {
+        this.buffered = MODE_STREAM.equalsIgnoreCase(mode);
+        this.bufferSize = bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE;
+    }
+
+    public static Gson getGson() {
+        return GSON;
+    }
+
+    private static Type jsonType(Class<?> type, Type genericType) {
+        return null == genericType ? type : genericType;
+    }
+
+    /**
+     * 只处理Json，流、字节数组和StreamingOutput交给Jersey自带的provider
+     */
+    private static boolean isJson(MediaType mediaType) {
+        return null == mediaType || mediaType.isWildcardSubtype()
+                || "json".equalsIgnoreCase(mediaType.getSubtype()) || mediaType.getSubtype().endsWith("+json");
     }
 
     @Override
     public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
-        return true;
+        return isJson(mediaType) && !InputStream.class.isAssignableFrom(type) && !Reader.class.isAssignableFrom(type)
+                && type != byte[].class;
     }
 
     @Override
     public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, String> httpHeaders,
                            InputStream entityStream) throws IOException, WebApplicationException {
-        InputStreamReader streamReader = new InputStreamReader(entityStream, UTF_8);
-        try {
-            Type jsonType;
-            if (type.equals(genericType)) {
-                jsonType = type;
-            } else {
-                jsonType = genericType;
-            }
-            return getGson().fromJson(streamReader, jsonType);
-        } finally {
-            streamReader.close();
+        try (Reader streamReader = new InputStreamReader(entityStream, StandardCharsets.UTF_8)) {
+            return GSON.fromJson(streamReader, jsonType(type, genericType));
         }
     }
 
     @Override
     public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
-        return true;
+        return isJson(mediaType) && !StreamingOutput.class.isAssignableFrom(type) && !InputStream.class.isAssignableFrom(type)
+                && type != byte[].class;
     }
 
     @Override
@@ -71,17 +96,28 @@ public final class GsonMessageBodyHandler implements MessageBodyWriter<Object>,
     @Override
     public void writeTo(Object object, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
                         MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
-        OutputStreamWriter writer = new OutputStreamWriter(entityStream, UTF_8);
+        if (!buffered) {
+            try (Writer writer = new OutputStreamWriter(entityStream, StandardCharsets.UTF_8)) {
+                GSON.toJson(object, jsonType(type, genericType), writer);
+            }
+            return;
+        }
+        JsonOutputBuffer buffer = JsonOutputBuffer.acquire(entityStream, bufferSize);
         try {
-            Type jsonType;
-            if (type.equals(genericType)) {
-                jsonType = type;
-            } else {
-                jsonType = genericType;
+            Writer writer = buffer.writer();
+            GSON.toJson(object, jsonType(type, genericType), writer);
+            writer.flush();
+            /**
+             * 没有溢出说明完整的响应都在缓冲里，长度已知；
+             * 经过压缩的响应长度会变化，不在这里设置
+             */
+            if (!buffer.isSpilled() && !httpHeaders.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                httpHeaders.putSingle(HttpHeaders.CONTENT_LENGTH, buffer.size());
             }
-            getGson().toJson(object, jsonType, writer);
-        } finally {
-            writer.close();
+            buffer.drain();
+        } catch (IOException | RuntimeException e) {
+            buffer.discard();
+            throw e;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package com.app.library.provide;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 线程复用的Json输出缓冲
+ * 序列化结果先写入本地字节数组，不超过阈值时整体写出并可以得到准确的长度，
+ * 超过阈值后把已缓冲的内容刷到目标流，之后直接写目标流(chunked)。
+ * 每个线程只持有一个实例，Writer和字节数组都不会按请求重新创建。
+ */
+final class JsonOutputBuffer extends OutputStream {
+
+    private static final ThreadLocal<JsonOutputBuffer> LOCAL = new ThreadLocal<>();
+
+    private final int threshold;
+    private final byte[] buf;
+    private final Writer writer;
+    private int count;
+    private OutputStream target;
+    private boolean spilled;
+
+    private JsonOutputBuffer(int threshold) {
+        this.threshold = threshold;
+        this.buf = new byte[threshold];
+        this.writer = new OutputStreamWriter(this, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 获取当前线程的缓冲，并绑定本次输出的目标流
+     */
+    static JsonOutputBuffer acquire(OutputStream target, int threshold) {
+        JsonOutputBuffer buffer = LOCAL.get();
+        if (buffer == null || buffer.threshold != threshold) {
+            buffer = new JsonOutputBuffer(threshold);
+            LOCAL.set(buffer);
+        }
+        buffer.count = 0;
+        buffer.spilled = false;
+        buffer.target = target;
+        return buffer;
+    }
+
+    Writer writer() {
+        return writer;
+    }
+
+    /**
+     * 是否已经超过阈值转为直接写目标流
+     */
+    boolean isSpilled() {
+        return spilled;
+    }
+
+    /**
+     * 未溢出时缓冲中的字节数
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * 序列化或写出失败时丢弃当前线程的缓冲，
+     * 避免Writer中残留的字符带到下一次请求
+     */
+    void discard() {
+        target = null;
+        LOCAL.remove();
+    }
+
+    /**
+     * 把缓冲内容写到目标流，并解除绑定
+     */
+    void drain() throws IOException {
+        try {
+            if (!spilled && count > 0) {
+                target.write(buf, 0, count);
+            }
+        } finally {
+            count = 0;
+            target = null;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (spilled) {
+            target.write(b);
+            return;
+        }
+        if (count == buf.length) {
+            spill();
+            target.write(b);
+            return;
+        }
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (spilled) {
+            target.write(b, off, len);
+            return;
+        }
+        if (len > buf.length - count) {
+            spill();
+            target.write(b, off, len);
+            return;
+        }
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    private void spill() throws IOException {
+        spilled = true;
+        if (count > 0) {
+            target.write(buf, 0, count);
+            count = 0;
+        }
+    }
+
+    @Override
+    public void flush() {
+        // 由调用方在drain时统一写出，这里不向目标流传递flush
+    }
+
+    @Override
+    public void close() {
+        // 缓冲会被当前线程复用，不能关闭内部的Writer
+    }
+}
@@ -0,0 +1,88 @@
+package com.app.library.server;
+
+import com.app.library.metrics.LatencyHistogram;
+import com.app.library.metrics.MetricsRegistry;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Jetty线程池负载状态
+ * 记录任务排队耗时(server.queue.wait)，维护最近排队耗时的滑动平均，
+ * 超过阈值时LoadShedFilter直接返回503；线程数、队列长度和使用率注册为指标
+ */
+public final class ServerLoad {
+    private static final LatencyHistogram QUEUE_WAIT = MetricsRegistry.histogram("server.queue.wait");
+    private static final LongAdder SHED = MetricsRegistry.counter("server.shed");
+
+    /**
+     * 排队耗时的指数滑动平均(权重1/8)，纳秒
+     * 多个线程并发更新时可能丢失个别样本，作为负载判断足够
+     */
+    private static volatile long averageWait;
+    private static volatile long shedThreshold;
+
+    private ServerLoad() {
+    }
+
+    static void recordQueueWait(long nanos) {
+        QUEUE_WAIT.record(nanos);
+        long average = averageWait;
+        averageWait = average + ((nanos - average) >> 3);
+    }
+
+    /**
+     * 排队耗时超过该值时开始拒绝请求，小于等于0时不拒绝
+     */
+    public static void setShedThreshold(long millis) {
+        shedThreshold = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    public static long getAverageQueueWait() {
+        return averageWait;
+    }
+
+    /**
+     * 当前是否需要拒绝新请求，返回true时同时计数
+     */
+    public static boolean shouldShed() {
+        long threshold = shedThreshold;
+        if (threshold <= 0 || averageWait <= threshold) {
+            return false;
+        }
+        SHED.increment();
+        return true;
+    }
+
+    /**
+     * 注册线程池指标，getThreads等方法对非QueuedThreadPool(如虚拟线程)可能返回-1
+     */
+    public static void register(ThreadPool pool, BlockingQueue<Runnable> queue) {
+        MetricsRegistry.gauge("server.pool.threads", pool::getThreads);
+        MetricsRegistry.gauge("server.pool.idle", pool::getIdleThreads);
+        MetricsRegistry.gauge("server.queue.size", () -> null == queue ? 0 : queue.size());
+        MetricsRegistry.gauge("server.queue.averageWait", () -> TimeUnit.NANOSECONDS.toMicros(averageWait));
+        if (pool instanceof QueuedThreadPool) {
+            QueuedThreadPool queued = (QueuedThreadPool) pool;
+            MetricsRegistry.gauge("server.pool.busy", queued::getBusyThreads);
+            MetricsRegistry.gauge("server.pool.max", queued::getMaxThreads);
+            // 使用率: 忙碌线程占最大线程数的百分比
+            MetricsRegistry.gauge("server.pool.utilization",
+                    () -> queued.getBusyThreads() * 100 / Math.max(1, queued.getMaxThreads()));
+        }
+    }
+
+    /**
+     * ExecutorThreadPool包装ThreadPoolExecutor时，忙碌线程数从执行器读取
+     */
+    public static void register(ThreadPoolExecutor executor) {
+        MetricsRegistry.gauge("server.pool.busy", executor::getActiveCount);
+        MetricsRegistry.gauge("server.pool.max", executor::getMaximumPoolSize);
+        MetricsRegistry.gauge("server.pool.utilization",
+                () -> executor.getActiveCount() * 100 / Math.max(1, executor.getMaximumPoolSize()));
+    }
+}
@@ -0,0 +1,43 @@
+package com.app.library.server;
+
+import org.eclipse.jetty.util.BlockingArrayQueue;
+
+/**
+ * Jetty线程池使用的有界任务队列
+ * 入队时记录时间，任务开始执行时把排队耗时交给ServerLoad统计，
+ * 队列满时offer返回false，由线程池拒绝任务，不再无限堆积
+ */
+public class TimedJobQueue extends BlockingArrayQueue<Runnable> {
+
+    public TimedJobQueue(int maxCapacity) {
+        super(Math.min(maxCapacity, 1024), Math.min(maxCapacity, 1024), maxCapacity);
+    }
+
+    /**
+     * BlockingArrayQueue的add同样经过offer，put和带超时的offer不支持
+     */
+    @Override
+    public boolean offer(Runnable job) {
+        return super.offer(job instanceof TimedJob ? job : new TimedJob(job));
+    }
+
+    private static final class TimedJob implements Runnable {
+        private final Runnable job;
+        private final long enqueued = System.nanoTime();
+
+        TimedJob(Runnable job) {
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            ServerLoad.recordQueueWait(System.nanoTime() - enqueued);
+            job.run();
+        }
+
+        @Override
+        public String toString() {
+            return job.toString();
+        }
+    }
+}
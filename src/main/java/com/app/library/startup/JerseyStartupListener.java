@@ -0,0 +1,38 @@
+package com.app.library.startup;
+
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+/**
+ * 记录Jersey初始化各阶段耗时：读取配置和Provider、构建资源模型、完成初始化
+ * 不监听请求事件，对请求没有额外开销
+ */
+public class JerseyStartupListener implements ApplicationEventListener {
+    private static final String PROVIDERS = "jersey providers and resource model";
+    private static final String FINISH = "jersey application initialization";
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+        switch (event.getType()) {
+            case INITIALIZATION_START:
+                StartupTimeline.begin(PROVIDERS);
+                break;
+            case INITIALIZATION_APP_FINISHED:
+                StartupTimeline.end(PROVIDERS);
+                StartupTimeline.begin(FINISH);
+                break;
+            case INITIALIZATION_FINISHED:
+                StartupTimeline.end(FINISH);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.app.library.startup;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 记录每个bean的创建耗时，应用就绪时输出启动报告
+ * 在它之前创建的bean(配置类、其他BeanPostProcessor)不在记录中
+ */
+@Component
+public class StartupBeanPostProcessor extends InstantiationAwareBeanPostProcessorAdapter
+        implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+        StartupTimeline.begin("bean " + beanName);
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        StartupTimeline.end("bean " + beanName);
+        return bean;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        StartupTimeline.ready();
+    }
+}
@@ -0,0 +1,79 @@
+package com.app.library.startup;
+
+import com.app.AppStart;
+import com.app.action.factory.BaseActionFactory;
+import com.app.config.CommonConfig;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * startup.lazy=true 时把应用自己扫描到的组件改为首次使用时创建
+ * 以下bean保持启动时创建：非应用角色的基础设施bean、@Bean方法定义的bean、
+ * 事件工厂(启动时绑定服务)、监听器和生命周期组件、
+ * ApplicationContextAware(如ApplicationContextHolder，静态持有容器供BaseService.getService使用)、
+ * startup.lazy.exclude中列出的类名前缀
+ */
+@Component
+public class StartupLazyInitPostProcessor implements BeanFactoryPostProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupLazyInitPostProcessor.class);
+    private static final String APP_PACKAGE = AppStart.class.getPackage().getName() + ".";
+    private static final Class<?>[] EAGER_TYPES = {BaseActionFactory.class, ApplicationListener.class, SmartLifecycle.class,
+            BeanFactoryPostProcessor.class, BeanPostProcessor.class, ApplicationContextAware.class};
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        ConfigSnapshot config = ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get();
+        if (!config.getBoolean("startup.lazy", false)) {
+            return;
+        }
+        String[] excludes = config.getString("startup.lazy.exclude", "").split(",");
+        int count = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (isLazyCandidate(definition, excludes, beanFactory.getBeanClassLoader())) {
+                definition.setLazyInit(true);
+                count++;
+            }
+        }
+        LOGGER.info("startup lazy init enabled, {} beans deferred", count);
+    }
+
+    private static boolean isLazyCandidate(BeanDefinition definition, String[] excludes, ClassLoader classLoader) {
+        String className = definition.getBeanClassName();
+        if (definition.getRole() != BeanDefinition.ROLE_APPLICATION || !definition.isSingleton()
+                || null != definition.getFactoryMethodName() || null == className
+                || !className.startsWith(APP_PACKAGE)) {
+            return false;
+        }
+        for (String exclude : excludes) {
+            if (!exclude.trim().isEmpty() && className.startsWith(exclude.trim())) {
+                return false;
+            }
+        }
+        try {
+            Class<?> type = ClassUtils.forName(className, classLoader);
+            for (Class<?> eager : EAGER_TYPES) {
+                if (eager.isAssignableFrom(type)) {
+                    return false;
+                }
+            }
+            // 配置类保持原样
+            return !type.isAnnotationPresent(Configuration.class);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
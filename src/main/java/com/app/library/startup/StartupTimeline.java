@@ -0,0 +1,96 @@
+package com.app.library.startup;
+
+import com.app.config.CommonConfig;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 启动耗时记录
+ * 记录每个bean从实例化到初始化完成的耗时(包含其依赖的创建)和Jersey各初始化阶段，
+ * 启动完成后输出耗时最长的startup.report.top项，总耗时注册为指标startup.millis；
+ * 启动完成后不再记录(原型或延迟创建的bean)
+ */
+public final class StartupTimeline {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupTimeline.class);
+    private static final ConfigSnapshot config = ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get();
+    private static final boolean enabled = config.getBoolean("startup.report", true);
+    private static final int top = config.getInt("startup.report.top", 20);
+
+    private static final ConcurrentHashMap<String, Long> started = new ConcurrentHashMap<>();
+    private static final List<Step> steps = new ArrayList<>();
+    private static volatile long readyMillis;
+
+    private StartupTimeline() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void begin(String name) {
+        if (enabled && 0 == readyMillis) {
+            started.putIfAbsent(name, System.nanoTime());
+        }
+    }
+
+    public static void end(String name) {
+        if (!enabled || 0 != readyMillis) {
+            return;
+        }
+        Long begin = started.remove(name);
+        if (null != begin) {
+            long nanos = System.nanoTime() - begin;
+            synchronized (steps) {
+                steps.add(new Step(name, nanos));
+            }
+        }
+    }
+
+    /**
+     * 启动完成时调用，输出报告
+     */
+    public static void ready() {
+        readyMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        MetricsRegistry.gauge("startup.millis", () -> readyMillis);
+        if (!enabled) {
+            return;
+        }
+        List<Step> sorted;
+        synchronized (steps) {
+            sorted = new ArrayList<>(steps);
+            steps.clear();
+        }
+        sorted.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        StringBuilder report = new StringBuilder(1024)
+                .append("startup finished in ").append(readyMillis).append(" ms (jvm start to ready), ")
+                .append(sorted.size()).append(" steps recorded, top ").append(Math.min(top, sorted.size())).append(':');
+        for (int i = 0; i < sorted.size() && i < top; i++) {
+            Step step = sorted.get(i);
+            report.append("\n  ").append(String.format("%8.1f ms  ", step.nanos / 1e6)).append(step.name);
+        }
+        LOGGER.info(report.toString());
+        started.clear();
+    }
+
+    public static long getReadyMillis() {
+        return readyMillis;
+    }
+
+    private static final class Step {
+        private final String name;
+        private final long nanos;
+
+        Step(String name, long nanos) {
+            this.name = name;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.app.library.sync;
+
+import com.app.library.provide.GsonMessageBodyHandler;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 追加写本地文件，每条消息一行Json
+ */
+public class FileSyncSink implements SyncSink {
+    private final Writer writer;
+
+    public FileSyncSink(String path) throws IOException {
+        File file = new File(path);
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (null != dir && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("create sync log dir failed: " + dir);
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void write(List<SyncEvent> batch) throws IOException {
+        for (SyncEvent event : batch) {
+            GsonMessageBodyHandler.getGson().toJson(event, writer);
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.app.library.sync;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 保存在内存中的有界sink，超过容量时丢弃最旧的消息
+ * 用于测试，以及文件sink创建失败时的兜底，不能通过sync.sink配置
+ */
+public class MemorySyncSink implements SyncSink {
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final int capacity;
+    private final ArrayDeque<SyncEvent> events = new ArrayDeque<>();
+    private long dropped;
+
+    public MemorySyncSink() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MemorySyncSink(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    @Override
+    public synchronized void write(List<SyncEvent> batch) {
+        for (SyncEvent event : batch) {
+            if (events.size() >= capacity) {
+                events.pollFirst();
+                dropped++;
+            }
+            events.addLast(event);
+        }
+    }
+
+    public synchronized List<SyncEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * 超过容量被丢弃的消息数
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
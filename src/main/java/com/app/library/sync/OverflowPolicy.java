@@ -0,0 +1,19 @@
+package com.app.library.sync;
+
+/**
+ * 缓冲区写满时的处理方式
+ */
+public enum OverflowPolicy {
+    /**
+     * 等待直到有空位
+     */
+    BLOCK,
+    /**
+     * 丢弃新消息并计数
+     */
+    DROP,
+    /**
+     * 写入本地溢出文件，缓冲区空闲时再回放
+     */
+    SPILL
+}
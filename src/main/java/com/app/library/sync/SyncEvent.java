@@ -0,0 +1,53 @@
+package com.app.library.sync;
+
+/**
+ * 事件推送的sync消息
+ */
+public class SyncEvent {
+    private String action;
+    private String type;
+    private long time;
+    private Object payload;
+
+    public SyncEvent() {
+    }
+
+    public SyncEvent(String action, String type, Object payload) {
+        this.action = action;
+        this.type = type;
+        this.payload = payload;
+        this.time = System.currentTimeMillis();
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public Object getPayload() {
+        return payload;
+    }
+
+    public void setPayload(Object payload) {
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,365 @@
+package com.app.library.sync;
+
+import com.app.config.CommonConfig;
+import com.app.library.metrics.MetricsRegistry;
+import com.app.library.provide.GsonMessageBodyHandler;
+import com.app.util.ConfigSnapshot;
+import com.app.util.ConfigStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * sync消息推送管道
+ * 事件线程只把消息放入有界无锁队列，后台线程按批取出写到SyncSink，
+ * 推送工作不在请求的关键路径上。队列写满时按OverflowPolicy处理。
+ * 后台线程空闲时挂起：没有待写消息时等待publish唤醒，有未满一批的消息时等到flush间隔，
+ * 队列中积累满一批时publish提前唤醒；SPILL策略下按flush间隔检查溢出文件。
+ * 配置见 app-config.properties 中的 sync.*，配置错误时记录ERROR并退回默认值，不影响事件执行
+ */
+public final class SyncEventPipeline implements SyncPipelineMXBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyncEventPipeline.class);
+    private static final String OBJECT_NAME = "com.app:type=SyncPipeline";
+    private static volatile SyncEventPipeline instance;
+
+    private final SyncRingBuffer<SyncEvent> buffer;
+    private final SyncSink sink;
+    private final OverflowPolicy policy;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final File spillFile;
+    private final Thread worker;
+    private volatile boolean running = true;
+    /**
+     * 后台线程挂起时，队列达到这个长度由publish唤醒；运行中为Integer.MAX_VALUE
+     */
+    private volatile int wakeSize = Integer.MAX_VALUE;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    public SyncEventPipeline(SyncSink sink, int capacity, int batchSize, long flushIntervalMillis,
+                             OverflowPolicy policy, File spillFile) {
+        this.sink = sink;
+        this.buffer = new SyncRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.policy = policy;
+        this.spillFile = spillFile;
+        File spillDir = spillFile.getAbsoluteFile().getParentFile();
+        if (policy == OverflowPolicy.SPILL && null != spillDir && !spillDir.exists() && !spillDir.mkdirs()) {
+            LOGGER.warn("create sync spill dir failed: {}", spillDir);
+        }
+        this.worker = new Thread(this::drainLoop, "sync-batcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public static SyncEventPipeline getInstance() {
+        SyncEventPipeline pipeline = instance;
+        if (null == pipeline) {
+            synchronized (SyncEventPipeline.class) {
+                pipeline = instance;
+                if (null == pipeline) {
+                    pipeline = fromConfig(ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get());
+                    pipeline.registerMBean();
+                    pipeline.registerMetrics();
+                    Runtime.getRuntime().addShutdownHook(new Thread(pipeline::stop, "sync-shutdown"));
+                    instance = pipeline;
+                }
+            }
+        }
+        return pipeline;
+    }
+
+    /**
+     * 配置只支持文件sink；sync.sink不支持或文件创建失败时记录ERROR并退回有界的内存sink(丢弃最旧的消息)，
+     * sync.overflow不合法时记录ERROR并使用DROP。管道在第一次publish时创建，
+     * 此时事件已经执行，配置错误不能让每个事件都失败
+     */
+    static SyncEventPipeline fromConfig(ConfigSnapshot config) {
+        return new SyncEventPipeline(createSink(config),
+                config.getInt("sync.buffer.size", 8192),
+                config.getInt("sync.batch.size", 256),
+                config.getLong("sync.flush.interval", 200),
+                overflowPolicy(config),
+                resolve(config.getString("sync.spill.path", "data/sync/spill.log")));
+    }
+
+    private static SyncSink createSink(ConfigSnapshot config) {
+        int capacity = config.getInt("sync.fallback.capacity", MemorySyncSink.DEFAULT_CAPACITY);
+        String sinkType = config.getString("sync.sink", "file");
+        if (!"file".equalsIgnoreCase(sinkType)) {
+            LOGGER.error("unsupported sync.sink: {}, fall back to bounded memory sink, capacity: {}", sinkType, capacity);
+            return new MemorySyncSink(capacity);
+        }
+        File file = resolve(config.getString("sync.file.path", "data/sync/sync.log"));
+        try {
+            SyncSink sink = new FileSyncSink(file.getPath());
+            LOGGER.info("sync file sink: {}", file);
+            return sink;
+        } catch (IOException e) {
+            LOGGER.error("create sync file sink {} error, fall back to bounded memory sink, capacity: {}", file, capacity, e);
+            return new MemorySyncSink(capacity);
+        }
+    }
+
+    private static OverflowPolicy overflowPolicy(ConfigSnapshot config) {
+        String value = config.getString("sync.overflow", "DROP");
+        try {
+            return OverflowPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("unsupported sync.overflow: {}, use DROP", value);
+            return OverflowPolicy.DROP;
+        }
+    }
+
+    /**
+     * 相对路径按系统属性app.home解析，未设置时为工作目录
+     */
+    static File resolve(String path) {
+        File file = new File(path);
+        if (file.isAbsolute()) {
+            return file;
+        }
+        return new File(System.getProperty("app.home", System.getProperty("user.dir")), path).getAbsoluteFile();
+    }
+
+    /**
+     * 推送一条消息，除BLOCK策略外不会阻塞调用方
+     * @return 消息是否进入队列或溢出文件
+     */
+    public boolean publish(SyncEvent event) {
+        published.increment();
+        if (buffer.offer(event)) {
+            signal();
+            return true;
+        }
+        switch (policy) {
+            case BLOCK:
+                while (running) {
+                    LockSupport.parkNanos(50_000L);
+                    if (buffer.offer(event)) {
+                        signal();
+                        return true;
+                    }
+                }
+                break;
+            case SPILL:
+                if (spill(event)) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * 后台线程在等待新消息，或在等flush间隔但已积累满一批时唤醒
+     */
+    private void signal() {
+        int size = wakeSize;
+        if (size != Integer.MAX_VALUE && buffer.size() >= size) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    public SyncSink getSink() {
+        return sink;
+    }
+
+    private synchronized boolean spill(SyncEvent event) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(spillFile, true), StandardCharsets.UTF_8)) {
+            GsonMessageBodyHandler.getGson().toJson(event, writer);
+            writer.write('\n');
+            spilled.increment();
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("spill sync event error", e);
+            return false;
+        }
+    }
+
+    /**
+     * 队列空闲时把溢出文件中的消息按批回放到sink
+     */
+    private void replaySpill() {
+        File replay;
+        synchronized (this) {
+            if (!spillFile.exists() || spillFile.length() == 0) {
+                return;
+            }
+            replay = new File(spillFile.getPath() + ".replay");
+            if (!spillFile.renameTo(replay)) {
+                return;
+            }
+        }
+        List<SyncEvent> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(replay), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                batch.add(GsonMessageBodyHandler.getGson().fromJson(line, SyncEvent.class));
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                }
+            }
+            flush(batch);
+        } catch (Exception e) {
+            LOGGER.error("replay sync spill file error", e);
+        }
+        if (!replay.delete()) {
+            LOGGER.warn("delete sync replay file failed: {}", replay);
+        }
+    }
+
+    private void drainLoop() {
+        List<SyncEvent> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+        long lastReplay = lastFlush;
+        while (running || buffer.size() > 0) {
+            SyncEvent event = buffer.poll();
+            if (null != event) {
+                batch.add(event);
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                    lastFlush = System.nanoTime();
+                }
+                continue;
+            }
+            long now = System.nanoTime();
+            if (!batch.isEmpty()) {
+                long remaining = lastFlush + flushIntervalNanos - now;
+                if (remaining <= 0) {
+                    flush(batch);
+                    lastFlush = System.nanoTime();
+                } else {
+                    await(batchSize - batch.size(), remaining);
+                }
+                continue;
+            }
+            if (policy == OverflowPolicy.SPILL) {
+                if (now - lastReplay >= flushIntervalNanos) {
+                    replaySpill();
+                    lastReplay = System.nanoTime();
+                }
+                await(1, flushIntervalNanos);
+            } else {
+                await(1, 0);
+            }
+        }
+        flush(batch);
+    }
+
+    /**
+     * 先公布唤醒条件再检查队列，与publish的"先入队再读条件"配合，不会错过唤醒
+     * @param size 队列达到该长度时被唤醒
+     * @param nanos 最长挂起时间，0为直到被唤醒
+     */
+    private void await(int size, long nanos) {
+        wakeSize = size;
+        if (running && buffer.size() < size) {
+            if (nanos > 0) {
+                LockSupport.parkNanos(this, nanos);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        wakeSize = Integer.MAX_VALUE;
+    }
+
+    private void flush(List<SyncEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            sink.write(batch);
+            written.add(batch.size());
+        } catch (Exception e) {
+            failedBatches.increment();
+            LOGGER.error("write sync batch error, size: {}", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * 停止接收并写完队列中剩余的消息
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+            sink.close();
+        } catch (Exception e) {
+            LOGGER.error("stop sync pipeline error", e);
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            LOGGER.warn("register sync pipeline mbean error: {}", e.getMessage());
+        }
+    }
+
+    private void registerMetrics() {
+        MetricsRegistry.gauge("sync.published", this::getPublished);
+        MetricsRegistry.gauge("sync.written", this::getWritten);
+        MetricsRegistry.gauge("sync.dropped", this::getDropped);
+        MetricsRegistry.gauge("sync.spilled", this::getSpilled);
+        MetricsRegistry.gauge("sync.failedBatches", this::getFailedBatches);
+        MetricsRegistry.gauge("sync.queueSize", this::getQueueSize);
+    }
+
+    @Override
+    public long getPublished() {
+        return published.sum();
+    }
+
+    @Override
+    public long getWritten() {
+        return written.sum();
+    }
+
+    @Override
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getSpilled() {
+        return spilled.sum();
+    }
+
+    @Override
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+}
@@ -0,0 +1,20 @@
+package com.app.library.sync;
+
+/**
+ * sync推送管道的运行状态，通过JMX(Jolokia)读取
+ */
+public interface SyncPipelineMXBean {
+    long getPublished();
+
+    long getWritten();
+
+    long getDropped();
+
+    long getSpilled();
+
+    long getFailedBatches();
+
+    int getQueueSize();
+
+    int getCapacity();
+}
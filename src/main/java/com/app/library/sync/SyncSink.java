@@ -0,0 +1,16 @@
+package com.app.library.sync;
+
+import java.util.List;
+
+/**
+ * sync消息的最终去向，由后台批处理线程按批调用
+ */
+public interface SyncSink {
+    /**
+     * 写入一批消息，抛出异常时本批计为失败
+     */
+    void write(List<SyncEvent> batch) throws Exception;
+
+    default void close() throws Exception {
+    }
+}
@@ -0,0 +1,293 @@
+package com.app.library.validate;
+
+import com.app.config.CommonConfig;
+import com.app.util.ConfigStore;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 输入参数的声明式校验
+ * 字段上的约束注解(javax.validation.constraints的NotNull、Size、Min、Max、Pattern，以及NotBlank、Valid)
+ * 在每个类第一次校验时编译为一组检查，字段通过MethodHandle读取，请求时不再做注解反射；
+ * fail-fast模式遇到第一个违反项即返回，collect-all模式返回全部违反项，配置 validate.mode
+ */
+public final class InputValidator {
+    public enum Mode {
+        FAIL_FAST, COLLECT_ALL
+    }
+
+    public static final Mode MODE = "collect-all".equalsIgnoreCase(
+            ConfigStore.of(CommonConfig.APP_CONFIG_FILE).get().getString("validate.mode", "fail-fast"))
+            ? Mode.COLLECT_ALL : Mode.FAIL_FAST;
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<InputValidator> VALIDATORS = new ClassValue<InputValidator>() {
+        @Override
+        protected InputValidator computeValue(Class<?> type) {
+            return new InputValidator(type);
+        }
+    };
+
+    private final Check[] checks;
+
+    private InputValidator(Class<?> type) {
+        List<Check> list = new ArrayList<>();
+        for (Class<?> current = type; null != current && Object.class != current; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    compile(field, list);
+                }
+            }
+        }
+        this.checks = list.toArray(new Check[0]);
+    }
+
+    public static InputValidator of(Class<?> type) {
+        return VALIDATORS.get(type);
+    }
+
+    /**
+     * 按配置的模式校验
+     * @return 违反项说明，没有违反时为空列表
+     */
+    public List<String> validate(Object input) {
+        return validate(input, MODE);
+    }
+
+    public List<String> validate(Object input, Mode mode) {
+        if (0 == checks.length) {
+            return Collections.emptyList();
+        }
+        List<String> violations = null;
+        for (Check check : checks) {
+            violations = check.apply(input, mode, violations);
+            if (null != violations && mode == Mode.FAIL_FAST) {
+                return violations;
+            }
+        }
+        return null == violations ? Collections.<String>emptyList() : violations;
+    }
+
+    private static void compile(Field field, List<Check> checks) {
+        String name = field.getName();
+        MethodHandle getter = null;
+        for (Annotation annotation : field.getAnnotations()) {
+            Check check = null;
+            if (annotation instanceof NotNull) {
+                check = new NotNullCheck(message(((NotNull) annotation).message(), name + " must not be null"));
+            } else if (annotation instanceof NotBlank) {
+                check = new NotBlankCheck(message(((NotBlank) annotation).message(), name + " must not be blank"));
+            } else if (annotation instanceof Size) {
+                Size size = (Size) annotation;
+                check = new SizeCheck(size.min(), size.max(),
+                        message(size.message(), name + " size must be between " + size.min() + " and " + size.max()));
+            } else if (annotation instanceof Min) {
+                Min min = (Min) annotation;
+                check = new RangeCheck(min.value(), Long.MAX_VALUE,
+                        message(min.message(), name + " must be greater than or equal to " + min.value()));
+            } else if (annotation instanceof Max) {
+                Max max = (Max) annotation;
+                check = new RangeCheck(Long.MIN_VALUE, max.value(),
+                        message(max.message(), name + " must be less than or equal to " + max.value()));
+            } else if (annotation instanceof Pattern) {
+                Pattern pattern = (Pattern) annotation;
+                check = new PatternCheck(java.util.regex.Pattern.compile(pattern.regexp()),
+                        message(pattern.message(), name + " must match \"" + pattern.regexp() + "\""));
+            } else if (annotation instanceof Valid) {
+                check = new NestedCheck(name + ".");
+            }
+            if (null != check) {
+                if (null == getter) {
+                    getter = getter(field);
+                }
+                check.getter = getter;
+                checks.add(check);
+            }
+        }
+    }
+
+    private static MethodHandle getter(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalStateException("cannot access input field " + field, e);
+        }
+    }
+
+    /**
+     * javax.validation默认的消息是"{...}"形式的模板，这里不做插值，使用字段名生成的说明
+     */
+    private static String message(String declared, String fallback) {
+        return null == declared || declared.isEmpty() || declared.startsWith("{") ? fallback : declared;
+    }
+
+    private abstract static class Check {
+        MethodHandle getter;
+        final String message;
+
+        Check(String message) {
+            this.message = message;
+        }
+
+        final Object read(Object input) {
+            try {
+                return getter.invokeExact(input);
+            } catch (Throwable e) {
+                throw new IllegalStateException("read input field error", e);
+            }
+        }
+
+        List<String> apply(Object input, Mode mode, List<String> violations) {
+            if (test(read(input))) {
+                return violations;
+            }
+            List<String> result = null == violations ? new ArrayList<>(4) : violations;
+            result.add(message);
+            return result;
+        }
+
+        /**
+         * null除NotNull、NotBlank外都视为通过，与javax.validation一致
+         */
+        abstract boolean test(Object value);
+    }
+
+    private static final class NotNullCheck extends Check {
+        NotNullCheck(String message) {
+            super(message);
+        }
+
+        @Override
+        boolean test(Object value) {
+            return null != value;
+        }
+    }
+
+    private static final class NotBlankCheck extends Check {
+        NotBlankCheck(String message) {
+            super(message);
+        }
+
+        @Override
+        boolean test(Object value) {
+            return null != value && !value.toString().trim().isEmpty();
+        }
+    }
+
+    private static final class SizeCheck extends Check {
+        private final int min;
+        private final int max;
+
+        SizeCheck(int min, int max, String message) {
+            super(message);
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        boolean test(Object value) {
+            int size;
+            if (null == value) {
+                return true;
+            } else if (value instanceof CharSequence) {
+                size = ((CharSequence) value).length();
+            } else if (value instanceof Collection) {
+                size = ((Collection<?>) value).size();
+            } else if (value instanceof Map) {
+                size = ((Map<?, ?>) value).size();
+            } else if (value.getClass().isArray()) {
+                size = Array.getLength(value);
+            } else {
+                return true;
+            }
+            return size >= min && size <= max;
+        }
+    }
+
+    private static final class RangeCheck extends Check {
+        private final long min;
+        private final long max;
+
+        RangeCheck(long min, long max, String message) {
+            super(message);
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        boolean test(Object value) {
+            if (!(value instanceof Number)) {
+                return true;
+            }
+            if (value instanceof Double || value instanceof Float) {
+                double number = ((Number) value).doubleValue();
+                return number >= min && number <= max;
+            }
+            long number = ((Number) value).longValue();
+            return number >= min && number <= max;
+        }
+    }
+
+    private static final class PatternCheck extends Check {
+        private final java.util.regex.Pattern pattern;
+
+        PatternCheck(java.util.regex.Pattern pattern, String message) {
+            super(message);
+            this.pattern = pattern;
+        }
+
+        @Override
+        boolean test(Object value) {
+            return !(value instanceof CharSequence) || pattern.matcher((CharSequence) value).matches();
+        }
+    }
+
+    /**
+     * 嵌套输入按其自身类型的规则校验，违反项加上字段名前缀
+     */
+    private static final class NestedCheck extends Check {
+        NestedCheck(String prefix) {
+            super(prefix);
+        }
+
+        @Override
+        List<String> apply(Object input, Mode mode, List<String> violations) {
+            Object value = read(input);
+            if (null == value) {
+                return violations;
+            }
+            List<String> nested = of(value.getClass()).validate(value, mode);
+            if (nested.isEmpty()) {
+                return violations;
+            }
+            List<String> result = null == violations ? new ArrayList<>(4) : violations;
+            for (String violation : nested) {
+                result.add(message + violation);
+            }
+            return result;
+        }
+
+        @Override
+        boolean test(Object value) {
+            return true;
+        }
+    }
+}
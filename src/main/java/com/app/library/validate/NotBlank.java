@@ -0,0 +1,18 @@
+package com.app.library.validate;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 字符串不能为null且去掉首尾空白后不能为空
+ * javax.validation 1.1中没有对应的注解，其余约束直接使用javax.validation.constraints
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface NotBlank {
+    String message() default "";
+}
@@ -0,0 +1,23 @@
+package com.app.rest;
+
+import com.app.domain.imput.batch.BatchItemInput;
+import com.app.library.batch.BatchDispatcher;
+
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import java.util.List;
+
+/**
+ * 批量接口，一次请求执行多个子请求，按顺序返回每一项的输出或ErrorInfo
+ * 请求体: [{"method":"GET","path":"/test/info","params":{"flag":"true"}}, ...]
+ */
+@Path("/batch")
+@Produces({MediaType.APPLICATION_JSON})
+@Consumes({MediaType.APPLICATION_JSON})
+public class BatchRest {
+    @POST
+    public StreamingOutput batch(List<BatchItemInput> items, @QueryParam("parallel") boolean parallel) {
+        return BatchDispatcher.dispatch(items, parallel);
+    }
+}
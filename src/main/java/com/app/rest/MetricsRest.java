@@ -0,0 +1,23 @@
+package com.app.rest;
+
+import com.app.library.metrics.MetricsRegistry;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import java.util.Map;
+
+/**
+ * 运行指标查询，prefix 按指标名前缀过滤，如 action.TestInfoAction
+ * 直方图的时间单位为微秒
+ */
+@Path("/metrics")
+@Produces({MediaType.APPLICATION_JSON})
+public class MetricsRest {
+    @GET
+    public Map<String, Object> metrics(@QueryParam("prefix") String prefix) {
+        return MetricsRegistry.snapshot(prefix);
+    }
+}
@@ -0,0 +1,17 @@
+package com.app.rest;
+
+/**
+ * 对外接口的资源类清单
+ * JerseyConfig按清单直接注册，启动时不扫描DefaultRestPackage下的类；
+ * 新增资源类需要加入这里，server.jersey.scan=true 时退回包扫描
+ */
+public final class RestResources {
+    private RestResources() {
+    }
+
+    public static final Class<?>[] classes = {
+            TestRest.class,
+            MetricsRest.class,
+            BatchRest.class
+    };
+}
@@ -1,31 +1,51 @@
 package com.app.rest;
 
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 import com.app.action.factory.TestActionFactory;
 import com.app.domain.output.test.TestInfoOutput;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.app.library.cache.Cacheable;
+import com.app.library.handle.AsyncResponseHandler;
+import com.app.library.hook.HookIngestor;
+import com.app.library.provide.CborMessageBodyHandler;
 
-import java.util.Map;
+import java.io.InputStream;
 
 @Path("/test")
-@Produces({MediaType.APPLICATION_JSON})
-@Consumes({MediaType.APPLICATION_JSON})
+@Produces({MediaType.APPLICATION_JSON, CborMessageBodyHandler.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CborMessageBodyHandler.APPLICATION_CBOR})
 public class TestRest {
-    private static final Logger logger = LoggerFactory.getLogger(TestRest.class);
     @GET
     @Path("/info")
+    @Cacheable(ttl = 5000, headers = HttpHeaders.ACCEPT)
     public TestInfoOutput test(@QueryParam("flag") boolean flag) throws Exception {
         return TestActionFactory.getTestInfoAction(flag).execute();
     }
 
+    /**
+     * 异步执行,请求挂起后释放Jetty工作线程
+     */
+    @GET
+    @Path("/info/async")
+    public void testAsync(@QueryParam("flag") boolean flag, @Suspended AsyncResponse asyncResponse) {
+        AsyncResponseHandler.resume(TestActionFactory.getTestInfoAction(flag).executeAsync(), asyncResponse);
+    }
+
+    /**
+     * 流式读取请求体,事件放入后台队列后立即返回202
+     */
     @POST
     @Path("/hook")
-    public String hookTest(Map<String, Object> body){
-        if (body != null)
-            logger.info("receiver result is{}", body.toString());
-        return "receiver hook result";
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response hookTest(InputStream body, @Context HttpHeaders headers) {
+        HookIngestor.getInstance().ingest(body, headers.getLength());
+        return Response.accepted("receiver hook result").build();
     }
 }
@@ -3,7 +3,7 @@ package com.app.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.security.MessageDigest;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 
@@ -43,30 +43,24 @@ public final class CommonUtil {
         return null;
     }
 
+    /**
+     * Properties按ISO-8859-1读取文件，这里还原为UTF-8字符串
+     */
+    public final static String latin1ToUtf8(String value) {
+        if (null == value) {
+            return null;
+        }
+        return new String(value.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+    }
+
     public final static Boolean checkMapperCudIsSuccess(int res) {
         return res >= 0;
     }
 
+    /**
+     * 按UTF-8编码计算MD5，大写十六进制
+     */
     public final static String MD5(String pwd) {
-        char md5String[] = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
-                'A', 'B', 'C', 'D', 'E', 'F'};
-        try {
-            byte[] btInput = pwd.getBytes();
-            MessageDigest mdInst = MessageDigest.getInstance("MD5");
-            mdInst.update(btInput);
-            byte[] md = mdInst.digest();
-            int j = md.length;
-            char str[] = new char[j * 2];
-            int k = 0;
-            for (int i = 0; i < j; i++) {
-                byte byte0 = md[i];
-                str[k++] = md5String[byte0 >>> 4 & 0xf];
-                str[k++] = md5String[byte0 & 0xf];
-            }
-            return new String(str);
-        } catch (Exception e) {
-            LOGGER.error("md5 create secret error");
-        }
-        return null;
+        return HashUtil.toHex(HashUtil.digest(HashUtil.Algorithm.MD5, pwd), true);
     }
 }
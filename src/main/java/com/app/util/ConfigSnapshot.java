@@ -0,0 +1,103 @@
+package com.app.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 配置文件某一时刻的不可变快照
+ * 文件只在加载时解析一次，值在加载时完成ISO-8859-1到UTF-8的转换，
+ * 数值类型在第一次读取时解析并按类型分别缓存，之后的读取只是一次Map查找
+ */
+public final class ConfigSnapshot {
+
+    private static final Object ABSENT = new Object();
+
+    private final String fileName;
+    private final long version;
+    private final Map<String, String> values;
+    private final ConcurrentMap<String, Object> ints = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> longs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> doubles = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> booleans = new ConcurrentHashMap<>();
+
+    ConfigSnapshot(String fileName, long version, Properties properties) {
+        Map<String, String> map = new HashMap<>(properties.size() * 2);
+        for (String name : properties.stringPropertyNames()) {
+            map.put(name, CommonUtil.latin1ToUtf8(properties.getProperty(name)).trim());
+        }
+        this.fileName = fileName;
+        this.version = version;
+        this.values = Collections.unmodifiableMap(map);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * 每次重新加载递增，可用于判断快照是否被替换
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<String, String> asMap() {
+        return values;
+    }
+
+    public boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    public String getString(String key) {
+        return values.get(key);
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = values.get(key);
+        return null == value ? defaultValue : value;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Integer value = parsed(ints, key, Integer::valueOf);
+        return null == value ? defaultValue : value;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Long value = parsed(longs, key, Long::valueOf);
+        return null == value ? defaultValue : value;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        Double value = parsed(doubles, key, Double::valueOf);
+        return null == value ? defaultValue : value;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Boolean value = parsed(booleans, key, Boolean::valueOf);
+        return null == value ? defaultValue : value;
+    }
+
+    /**
+     * 每种类型一个缓存，同一个key按不同类型读取时互不影响
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T parsed(ConcurrentMap<String, Object> typed, String key, Function<String, T> parser) {
+        Object value = typed.get(key);
+        if (null == value) {
+            String raw = values.get(key);
+            try {
+                value = (null == raw || raw.isEmpty()) ? ABSENT : parser.apply(raw);
+            } catch (RuntimeException e) {
+                value = ABSENT;
+            }
+            typed.putIfAbsent(key, value);
+        }
+        return value == ABSENT ? null : (T) value;
+    }
+}
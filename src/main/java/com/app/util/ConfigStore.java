@@ -0,0 +1,172 @@
+package com.app.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 按文件缓存的配置
+ * 每个classpath配置文件对应一个ConfigStore，读取方拿到的是不可变的ConfigSnapshot，
+ * 重新加载时整体替换快照，读取方不需要加锁。
+ * 文件中配置 config.watch=true 且文件位于磁盘目录(非jar包内)时，会监听文件变化自动重新加载
+ */
+public final class ConfigStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigStore.class);
+    private static final ConcurrentMap<String, ConfigStore> STORES = new ConcurrentHashMap<>();
+    private static final AtomicLong VERSION = new AtomicLong();
+    public static final String WATCH_KEY = "config.watch";
+
+    private final String fileName;
+    private final List<Consumer<ConfigSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private volatile ConfigSnapshot snapshot;
+    private volatile boolean watching;
+
+    private ConfigStore(String fileName) {
+        this.fileName = fileName;
+        this.snapshot = load();
+    }
+
+    public static ConfigStore of(String fileName) {
+        ConfigStore store = STORES.get(fileName);
+        if (null == store) {
+            store = STORES.computeIfAbsent(fileName, ConfigStore::new);
+            if (store.snapshot.getBoolean(WATCH_KEY, false)) {
+                store.watch();
+            }
+        }
+        return store;
+    }
+
+    /**
+     * 当前快照
+     */
+    public ConfigSnapshot get() {
+        return snapshot;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * 快照被替换后回调，回调在监听线程中执行
+     */
+    public void addListener(Consumer<ConfigSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 重新读取文件并替换快照
+     */
+    public ConfigSnapshot reload() {
+        ConfigSnapshot next = load();
+        snapshot = next;
+        for (Consumer<ConfigSnapshot> listener : listeners) {
+            try {
+                listener.accept(next);
+            } catch (Exception e) {
+                LOGGER.error("config listener error, file: {}", fileName, e);
+            }
+        }
+        return next;
+    }
+
+    private ConfigSnapshot load() {
+        Properties properties = new Properties();
+        try (InputStream in = ConfigStore.class.getClassLoader().getResourceAsStream(fileName)) {
+            if (null == in) {
+                LOGGER.warn("config file '{}' not found in classpath", fileName);
+            } else {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            LOGGER.error("load config file '{}' error", fileName, e);
+        }
+        return new ConfigSnapshot(fileName, VERSION.incrementAndGet(), properties);
+    }
+
+    /**
+     * 监听配置文件变化，文件在jar包内时不支持
+     */
+    public synchronized void watch() {
+        if (watching) {
+            return;
+        }
+        URL url = ConfigStore.class.getClassLoader().getResource(fileName);
+        if (null == url || !"file".equals(url.getProtocol())) {
+            LOGGER.info("config file '{}' is not a plain file, watch disabled", fileName);
+            return;
+        }
+        try {
+            Path file = Paths.get(url.toURI());
+            Watcher.INSTANCE.register(file, this);
+            watching = true;
+        } catch (Exception e) {
+            LOGGER.error("watch config file '{}' error", fileName, e);
+        }
+    }
+
+    /**
+     * 所有配置文件共用一个监听线程
+     */
+    private static final class Watcher implements Runnable {
+        private static final Watcher INSTANCE = new Watcher();
+
+        private final ConcurrentMap<Path, ConfigStore> files = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Path, WatchKey> dirs = new ConcurrentHashMap<>();
+        private WatchService service;
+
+        synchronized void register(Path file, ConfigStore store) throws IOException {
+            if (null == service) {
+                service = FileSystems.getDefault().newWatchService();
+                Thread thread = new Thread(this, "config-watcher");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            Path dir = file.getParent();
+            files.put(file, store);
+            if (!dirs.containsKey(dir)) {
+                dirs.put(dir, dir.register(service, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_CREATE));
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key;
+                try {
+                    key = service.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        files.values().forEach(ConfigStore::reload);
+                        continue;
+                    }
+                    ConfigStore store = files.get(dir.resolve((Path) event.context()));
+                    if (null != store) {
+                        LOGGER.info("config file '{}' changed, reload", store.fileName);
+                        store.reload();
+                    }
+                }
+                if (!key.reset()) {
+                    dirs.remove(dir);
+                }
+            }
+        }
+    }
+}
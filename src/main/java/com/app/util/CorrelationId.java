@@ -0,0 +1,51 @@
+package com.app.util;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 请求关联ID生成器
+ * 格式为 12位毫秒时间戳 + 4位节点号 + 8位自增序号(均为16进制，共24位)，
+ * 节点号在启动时随机生成一次，之后生成ID只需一次原子自增，不使用SecureRandom
+ */
+public final class CorrelationId {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int LENGTH = 24;
+    private static final int MAX_INBOUND_LENGTH = 64;
+    private static final long NODE = new SecureRandom().nextInt(0x10000);
+    private static final AtomicLong COUNTER = new AtomicLong(new SecureRandom().nextInt());
+
+    private CorrelationId() {
+    }
+
+    public static String next() {
+        char[] chars = new char[LENGTH];
+        fill(chars, 0, 12, System.currentTimeMillis());
+        fill(chars, 12, 4, NODE);
+        fill(chars, 16, 8, COUNTER.incrementAndGet());
+        return new String(chars);
+    }
+
+    private static void fill(char[] chars, int offset, int digits, long value) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX[(int) (value & 0xf)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * 上游传入的ID只接受长度有限的可见ASCII字符，避免日志注入
+     */
+    public static boolean isValid(String id) {
+        if (null == id || id.isEmpty() || id.length() > MAX_INBOUND_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c <= ' ' || c >= 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
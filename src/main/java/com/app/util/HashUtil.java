@@ -0,0 +1,229 @@
+package com.app.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 摘要和哈希工具
+ * MessageDigest不是线程安全的，每个线程按算法缓存一个实例复用，不在每次调用时getInstance；
+ * 字符串一律按UTF-8编码，不依赖平台默认字符集；
+ * hash64为非加密的xxHash64，用于ETag等只需要区分内容的场景，
+ * 可能被构造碰撞的场景(如token)必须使用SHA-256
+ */
+public final class HashUtil {
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    public enum Algorithm {
+        MD5("MD5"),
+        SHA256("SHA-256");
+
+        private final String name;
+        private final ThreadLocal<MessageDigest> digest;
+
+        Algorithm(String name) {
+            this.name = name;
+            this.digest = ThreadLocal.withInitial(this::newDigest);
+        }
+
+        /**
+         * 当前线程的实例，已reset
+         */
+        MessageDigest get() {
+            MessageDigest instance = digest.get();
+            instance.reset();
+            return instance;
+        }
+
+        private MessageDigest newDigest() {
+            try {
+                return MessageDigest.getInstance(name);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(name + " not supported", e);
+            }
+        }
+    }
+
+    private HashUtil() {
+    }
+
+    public static byte[] digest(Algorithm algorithm, byte[] bytes) {
+        return algorithm.get().digest(bytes);
+    }
+
+    public static byte[] digest(Algorithm algorithm, String value) {
+        return digest(algorithm, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 摘要buffer中剩余的字节，不改变buffer的position
+     */
+    public static byte[] digest(Algorithm algorithm, ByteBuffer buffer) {
+        MessageDigest digest = algorithm.get();
+        digest.update(buffer.duplicate());
+        return digest.digest();
+    }
+
+    /**
+     * 流式摘要，读到流结束，不关闭流；大请求体不需要整体读入内存
+     */
+    public static byte[] digest(Algorithm algorithm, InputStream in) throws IOException {
+        MessageDigest digest = algorithm.get();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int n; (n = in.read(buffer)) != -1; ) {
+            digest.update(buffer, 0, n);
+        }
+        return digest.digest();
+    }
+
+    public static String md5Hex(String value) {
+        return toHex(digest(Algorithm.MD5, value), false);
+    }
+
+    /**
+     * 按UTF-8编码计算SHA-256，小写十六进制
+     */
+    public static String sha256Hex(String value) {
+        return toHex(digest(Algorithm.SHA256, value), false);
+    }
+
+    public static String toHex(byte[] bytes) {
+        return toHex(bytes, false);
+    }
+
+    public static String toHex(byte[] bytes, boolean upperCase) {
+        char[] chars = new char[bytes.length * 2];
+        toHex(bytes, 0, bytes.length, chars, 0, upperCase);
+        return new String(chars);
+    }
+
+    /**
+     * 写入调用方提供的缓冲区，不分配对象
+     * @return 写入后的下一个位置
+     */
+    public static int toHex(byte[] bytes, int offset, int length, char[] dest, int destOffset, boolean upperCase) {
+        char[] hex = upperCase ? HEX_UPPER : HEX_LOWER;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            dest[destOffset++] = hex[bytes[i] >>> 4 & 0xF];
+            dest[destOffset++] = hex[bytes[i] & 0xF];
+        }
+        return destOffset;
+    }
+
+    /**
+     * 固定16位小写十六进制写入调用方提供的缓冲区
+     * @return 写入后的下一个位置
+     */
+    public static int toHex(long value, char[] dest, int destOffset) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            dest[destOffset++] = HEX_LOWER[(int) (value >>> shift) & 0xF];
+        }
+        return destOffset;
+    }
+
+    /**
+     * 固定16位小写十六进制追加到builder
+     */
+    public static StringBuilder appendHex(StringBuilder builder, long value) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            builder.append(HEX_LOWER[(int) (value >>> shift) & 0xF]);
+        }
+        return builder;
+    }
+
+    public static long hash64(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return hash64(bytes, 0, bytes.length, 0);
+    }
+
+    public static long hash64(byte[] bytes) {
+        return hash64(bytes, 0, bytes.length, 0);
+    }
+
+    /**
+     * xxHash64
+     */
+    public static long hash64(byte[] bytes, int offset, int length, long seed) {
+        int end = offset + length;
+        int p = offset;
+        long h;
+        if (length >= 32) {
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            for (int limit = end - 32; p <= limit; p += 32) {
+                v1 = round(v1, readLong(bytes, p));
+                v2 = round(v2, readLong(bytes, p + 8));
+                v3 = round(v3, readLong(bytes, p + 16));
+                v4 = round(v4, readLong(bytes, p + 24));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + PRIME64_5;
+        }
+        h += length;
+        for (; p + 8 <= end; p += 8) {
+            h ^= round(0, readLong(bytes, p));
+            h = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+        }
+        if (p + 4 <= end) {
+            h ^= (readInt(bytes, p) & 0xFFFFFFFFL) * PRIME64_1;
+            h = Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+            p += 4;
+        }
+        for (; p < end; p++) {
+            h ^= (bytes[p] & 0xFFL) * PRIME64_5;
+            h = Long.rotateLeft(h, 11) * PRIME64_1;
+        }
+        h ^= h >>> 33;
+        h *= PRIME64_2;
+        h ^= h >>> 29;
+        h *= PRIME64_3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        return Long.rotateLeft(acc, 31) * PRIME64_1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+
+    private static long readLong(byte[] bytes, int p) {
+        return (bytes[p] & 0xFFL)
+                | (bytes[p + 1] & 0xFFL) << 8
+                | (bytes[p + 2] & 0xFFL) << 16
+                | (bytes[p + 3] & 0xFFL) << 24
+                | (bytes[p + 4] & 0xFFL) << 32
+                | (bytes[p + 5] & 0xFFL) << 40
+                | (bytes[p + 6] & 0xFFL) << 48
+                | (bytes[p + 7] & 0xFFL) << 56;
+    }
+
+    private static int readInt(byte[] bytes, int p) {
+        return (bytes[p] & 0xFF)
+                | (bytes[p + 1] & 0xFF) << 8
+                | (bytes[p + 2] & 0xFF) << 16
+                | (bytes[p + 3] & 0xFF) << 24;
+    }
+}
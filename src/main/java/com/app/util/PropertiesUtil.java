@@ -1,19 +1,23 @@
 package com.app.util;
 
+import com.app.config.CommonConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
-import java.util.Objects;
 import java.util.Properties;
 
+/**
+ * 旧的配置读取入口，保留原有接口
+ * 实际读取委托给按文件缓存的ConfigStore，不再每次从classpath加载文件；
+ * 新代码请直接使用 ConfigStore.of(file).get()
+ */
 @Component
 public class PropertiesUtil {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PropertiesUtil.class);
 
-    private static String userConfigFile = "jetty.properties";
+    private static volatile String userConfigFile = CommonConfig.SERVER_CONFIG_FILE;
     private static PropertiesUtil propertiesUtil = new PropertiesUtil();
-    private static final Properties properties = new Properties();
 
     public PropertiesUtil() {
     }
@@ -27,34 +31,26 @@ public class PropertiesUtil {
         return propertiesUtil;
     }
 
+    /**
+     * 当前默认配置文件内容的副本
+     */
     public static Properties getProperties() {
+        Properties properties = new Properties();
+        properties.putAll(ConfigStore.of(userConfigFile).get().asMap());
         return properties;
     }
 
     public static String getValue(String key) {
-        InputStream in = null;
-        try {
-            in = PropertiesUtil.class.getClassLoader().getResourceAsStream(userConfigFile);
-            properties.load(in);
-        } catch (Exception e) {
-            e.printStackTrace();
-        } finally {
-            if (Objects.equals(null, in)) {
-                try {
-                    in.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
-        String value = null;
-        try {
-            value = new String(properties.get(key).toString().getBytes("ISO-8859-1"), "utf-8");
-        } catch (UnsupportedEncodingException e) {
-            System.out.println("charset error,please use utf-8 charset code!");
-        }
+        return getValue(userConfigFile, key);
+    }
+
+    /**
+     * 从指定文件读取，不依赖也不修改全局的默认文件
+     */
+    public static String getValue(String configFile, String key) {
+        String value = ConfigStore.of(configFile).get().getString(key);
         if (null == value) {
-            System.out.println("notice: you get value is null!");
+            LOGGER.debug("config value is null, [file: {}], [key: {}]", configFile, key);
         }
         return value;
     }
@@ -0,0 +1,87 @@
+package com.app.library.admission;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveLimitTest {
+    private static final long MS = 1_000_000L;
+
+    private static void fill(AdaptiveLimit limit) {
+        while (limit.tryAcquire()) {
+            // 占满全部名额
+        }
+    }
+
+    @Test
+    public void rejectsAboveLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, 2.0, 0.9);
+        Assert.assertTrue(limit.tryAcquire());
+        Assert.assertTrue(limit.tryAcquire());
+        Assert.assertFalse(limit.tryAcquire());
+        limit.release(MS, false);
+        Assert.assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    public void jitterAtLowLoadKeepsLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(100, 10, 1000, 2.0, 0.9);
+        for (int i = 0; i < 10_000; i++) {
+            Assert.assertTrue(limit.tryAcquire());
+            // 快速接口的延迟抖动，很多样本超过最小值的2倍
+            limit.release(i % 3 == 0 ? 10 * MS : MS, i % 50 == 0);
+        }
+        Assert.assertEquals(100, limit.getLimit());
+        Assert.assertEquals(0, limit.getInflight());
+    }
+
+    @Test
+    public void growsWhenHalfUsedAndLatencyStable() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 10, 1000, 2.0, 0.9);
+        for (int i = 0; i < 15; i++) {
+            Assert.assertTrue(limit.tryAcquire());
+        }
+        for (int i = 0; i < 100; i++) {
+            limit.release(MS, false);
+            Assert.assertTrue(limit.tryAcquire());
+        }
+        Assert.assertTrue(limit.getLimit() > 20);
+    }
+
+    @Test
+    public void backsOffWhenBindingAndLatencyRises() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 5, 20, 2.0, 0.9);
+        fill(limit);
+        for (int i = 0; i < 500; i++) {
+            limit.release(MS, false);
+            fill(limit);
+        }
+        Assert.assertEquals(20, limit.getLimit());
+        for (int i = 0; i < 30; i++) {
+            limit.release(20 * MS, false);
+            fill(limit);
+        }
+        Assert.assertTrue(limit.getLimit() < 20);
+        Assert.assertTrue(limit.getLimit() >= 5);
+    }
+
+    @Test
+    public void failureBacksOffOnlyWhenBinding() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 5, 20, 2.0, 0.9);
+        Assert.assertTrue(limit.tryAcquire());
+        limit.release(MS, true);
+        Assert.assertEquals(20, limit.getLimit());
+        fill(limit);
+        limit.release(MS, true);
+        Assert.assertEquals(18, limit.getLimit());
+    }
+
+    @Test
+    public void neverBelowMinLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 5, 20, 2.0, 0.5);
+        for (int i = 0; i < 100; i++) {
+            fill(limit);
+            limit.release(MS, true);
+        }
+        Assert.assertEquals(5, limit.getLimit());
+    }
+}
@@ -0,0 +1,107 @@
+package com.app.library.admission;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RateLimiterTest {
+    private static final long MS = 1_000_000L;
+    private static final long T0 = 1_000_000_000_000L;
+
+    @Test
+    public void allowsBurstThenRejects() {
+        RateLimiter limiter = new RateLimiter(10, 5, 100);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(limiter.tryAcquire("u1", T0));
+        }
+        Assert.assertFalse(limiter.tryAcquire("u1", T0));
+    }
+
+    @Test
+    public void refillsOnePermitPerInterval() {
+        RateLimiter limiter = new RateLimiter(10, 5, 100);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(limiter.tryAcquire("u1", T0));
+        }
+        Assert.assertFalse(limiter.tryAcquire("u1", T0 + 99 * MS));
+        Assert.assertTrue(limiter.tryAcquire("u1", T0 + 100 * MS));
+        Assert.assertFalse(limiter.tryAcquire("u1", T0 + 100 * MS));
+    }
+
+    @Test
+    public void sustainedRateIsBurstPlusPermits() {
+        RateLimiter limiter = new RateLimiter(10, 5, 100);
+        int accepted = 0;
+        for (long t = 0; t < 1000; t++) {
+            if (limiter.tryAcquire("u1", T0 + t * MS)) {
+                accepted++;
+            }
+        }
+        // 初始5个令牌，之后每100ms补充1个
+        Assert.assertEquals(14, accepted);
+    }
+
+    @Test
+    public void burstOfOneAllowsOnlyExactInterval() {
+        RateLimiter limiter = new RateLimiter(100, 1, 100);
+        Assert.assertTrue(limiter.tryAcquire("u1", T0));
+        Assert.assertFalse(limiter.tryAcquire("u1", T0 + 9 * MS));
+        Assert.assertTrue(limiter.tryAcquire("u1", T0 + 10 * MS));
+    }
+
+    @Test
+    public void keysAreIndependent() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100);
+        Assert.assertTrue(limiter.tryAcquire("u1", T0));
+        Assert.assertFalse(limiter.tryAcquire("u1", T0));
+        Assert.assertTrue(limiter.tryAcquire("u2", T0));
+    }
+
+    @Test
+    public void evictsRefilledBucketsWhenFull() {
+        RateLimiter limiter = new RateLimiter(10, 5, 2);
+        Assert.assertTrue(limiter.tryAcquire("u1", T0));
+        Assert.assertTrue(limiter.tryAcquire("u2", T0));
+        Assert.assertEquals(2, limiter.size());
+        Assert.assertTrue(limiter.tryAcquire("u3", T0 + 1000 * MS));
+        Assert.assertEquals(1, limiter.size());
+    }
+
+    @Test
+    public void sizeNeverExceedsCapWhileKeysAreActive() {
+        RateLimiter limiter = new RateLimiter(1, 2, 100);
+        for (int i = 0; i < 5000; i++) {
+            // 每个key都取了令牌，桶没有回满，不能被清理
+            limiter.tryAcquire("u" + i, T0 + i * MS);
+            Assert.assertTrue(limiter.size() <= 100);
+        }
+        Assert.assertEquals(100, limiter.size());
+    }
+
+    @Test
+    public void rotatingKeysShareOverflowBucket() {
+        RateLimiter limiter = new RateLimiter(1, 2, 1);
+        Assert.assertTrue(limiter.tryAcquire("u0", T0));
+        // 超过上限的新key共用一个容量为2的溢出桶
+        Assert.assertTrue(limiter.tryAcquire("u1", T0));
+        Assert.assertTrue(limiter.tryAcquire("u2", T0));
+        Assert.assertFalse(limiter.tryAcquire("u3", T0));
+        Assert.assertFalse(limiter.tryAcquire("u4", T0));
+        Assert.assertEquals(1, limiter.size());
+    }
+
+    @Test
+    public void evictsAtMostOncePerInterval() {
+        RateLimiter limiter = new RateLimiter(10, 1, 1);
+        Assert.assertTrue(limiter.tryAcquire("u1", T0));
+        // T0+50ms时u1还没回满，这次清理没有空出位置，u2使用溢出桶
+        Assert.assertTrue(limiter.tryAcquire("u2", T0 + 50 * MS));
+        Assert.assertFalse(limiter.contains("u2"));
+        // T0+300ms时u1已回满，但距上次清理不到1秒，不再扫描
+        Assert.assertTrue(limiter.tryAcquire("u3", T0 + 300 * MS));
+        Assert.assertTrue(limiter.contains("u1"));
+        Assert.assertFalse(limiter.contains("u3"));
+        Assert.assertTrue(limiter.tryAcquire("u3", T0 + 1100 * MS));
+        Assert.assertFalse(limiter.contains("u1"));
+        Assert.assertTrue(limiter.contains("u3"));
+    }
+}
@@ -0,0 +1,168 @@
+package com.app.library.coalesce;
+
+import com.app.domain.HttpStatusCode;
+import com.app.exception.AppException;
+import com.app.library.context.RequestContext;
+import com.app.library.metrics.MetricsRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SingleFlightTest {
+    private static final LongAdder FOLLOWERS = MetricsRegistry.counter("coalesce.SingleFlightTest.follower");
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static SingleFlight flight() {
+        SingleFlight flight = SingleFlight.of(SingleFlightTest.class);
+        Assert.assertNotNull("coalesce.enabled should be true", flight);
+        return flight;
+    }
+
+    /**
+     * 等待leader的任务开始执行，之后提交的调用都是follower
+     */
+    private static void awaitLeader(CountDownLatch started) throws InterruptedException {
+        Assert.assertTrue("leader not started", started.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 等待follower计数达到期望值，即这些调用已经确定为follower
+     * @param base 提交follower之前的计数
+     */
+    private static void awaitFollowers(long base, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (FOLLOWERS.sum() < base + count) {
+            Assert.assertTrue("followers not arrived", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+        SingleFlight flight = flight();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> task = () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "result";
+        };
+        Future<String> leader = executor.submit(() -> flight.execute("share", 5000, task));
+        awaitLeader(started);
+        long base = FOLLOWERS.sum();
+        Future<String> follower1 = executor.submit(() -> flight.execute("share", 5000, task));
+        Future<String> follower2 = executor.submit(() -> flight.execute("share", 5000, task));
+        awaitFollowers(base, 2);
+        release.countDown();
+        Assert.assertEquals("result", leader.get());
+        Assert.assertEquals("result", follower1.get());
+        Assert.assertEquals("result", follower2.get());
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void shareIsAppliedToFollowersOnly() throws Exception {
+        SingleFlight flight = flight();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<StringBuilder> task = () -> {
+            started.countDown();
+            release.await();
+            return new StringBuilder("leader");
+        };
+        Future<StringBuilder> leader = executor.submit(() -> flight.execute("copy", 5000, task, null));
+        awaitLeader(started);
+        long base = FOLLOWERS.sum();
+        Future<StringBuilder> follower = executor.submit(() ->
+                flight.execute("copy", 5000, task, result -> new StringBuilder(result).append("-copy")));
+        awaitFollowers(base, 1);
+        release.countDown();
+        Assert.assertEquals("leader", leader.get().toString());
+        Assert.assertEquals("leader-copy", follower.get().toString());
+    }
+
+    @Test
+    public void followerGetsExceptionWithOwnUuid() throws Exception {
+        SingleFlight flight = flight();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> task = () -> {
+            started.countDown();
+            release.await();
+            throw AppException.of(HttpStatusCode.BAD_REQUEST, "bad");
+        };
+        Future<String> leader = executor.submit(() -> {
+            RequestContext.setRequestId("leader-id");
+            try {
+                return flight.execute("error", 5000, task);
+            } finally {
+                RequestContext.clear();
+            }
+        });
+        awaitLeader(started);
+        long base = FOLLOWERS.sum();
+        Future<String> follower = executor.submit(() -> {
+            RequestContext.setRequestId("follower-id");
+            try {
+                return flight.execute("error", 5000, task);
+            } finally {
+                RequestContext.clear();
+            }
+        });
+        awaitFollowers(base, 1);
+        release.countDown();
+        Assert.assertEquals("leader-id", uuidOf(leader));
+        Assert.assertEquals("follower-id", uuidOf(follower));
+    }
+
+    private static String uuidOf(Future<String> future) throws InterruptedException {
+        try {
+            future.get();
+            Assert.fail("expected AppException");
+            return null;
+        } catch (ExecutionException e) {
+            AppException error = (AppException) e.getCause();
+            Assert.assertEquals(HttpStatusCode.BAD_REQUEST, error.getCode());
+            Assert.assertEquals("bad", error.getMessage());
+            return error.getUuid();
+        }
+    }
+
+    @Test
+    public void followerRunsItselfAfterTimeout() throws Exception {
+        SingleFlight flight = flight();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<Integer> leader = executor.submit(() -> flight.execute("timeout", 5000, () -> {
+            started.countDown();
+            release.await();
+            return calls.incrementAndGet();
+        }));
+        awaitLeader(started);
+        int own = flight.execute("timeout", 50, calls::incrementAndGet);
+        Assert.assertEquals(1, own);
+        release.countDown();
+        Assert.assertEquals(2, leader.get().intValue());
+    }
+
+    @Test
+    public void sequentialCallsExecuteEachTime() throws Exception {
+        SingleFlight flight = flight();
+        AtomicInteger calls = new AtomicInteger();
+        flight.execute("sequential", 1000, calls::incrementAndGet);
+        flight.execute("sequential", 1000, calls::incrementAndGet);
+        Assert.assertEquals(2, calls.get());
+    }
+}
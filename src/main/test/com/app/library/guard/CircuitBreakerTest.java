@@ -0,0 +1,122 @@
+package com.app.library.guard;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+    private static final long NOW = 1_000_000L;
+
+    /**
+     * 窗口10秒，至少4次调用，失败率50%，慢调用率不判断，打开1秒
+     */
+    private static CircuitBreaker breaker() {
+        return new CircuitBreaker(10, 4, 50, 0, 1000);
+    }
+
+    private static void fail(CircuitBreaker breaker, long now, int times) {
+        for (int i = 0; i < times; i++) {
+            Assert.assertEquals(CircuitBreaker.PERMITTED, breaker.allow(now));
+            breaker.record(now, true, false);
+        }
+    }
+
+    @Test
+    public void opensWhenFailureRateExceeded() {
+        CircuitBreaker breaker = breaker();
+        breaker.record(NOW, false, false);
+        breaker.record(NOW, false, false);
+        fail(breaker, NOW, 1);
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+        fail(breaker, NOW, 1);
+        Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+        Assert.assertEquals(CircuitBreaker.REJECTED, breaker.allow(NOW + 999));
+    }
+
+    @Test
+    public void staysClosedBelowMinRequests() {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, NOW, 3);
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void onlyOneTrialAfterOpen() {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, NOW, 4);
+        Assert.assertEquals(CircuitBreaker.TRIAL, breaker.allow(NOW + 1000));
+        Assert.assertEquals(CircuitBreaker.HALF_OPEN, breaker.getState());
+        Assert.assertEquals(CircuitBreaker.REJECTED, breaker.allow(NOW + 1000));
+    }
+
+    @Test
+    public void successfulTrialCloses() {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, NOW, 4);
+        Assert.assertEquals(CircuitBreaker.TRIAL, breaker.allow(NOW + 1000));
+        breaker.recordTrial(NOW + 1001, NOW + 1000, false, false);
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+        // 窗口已清空，再失败3次不会立即打开
+        fail(breaker, NOW + 1002, 3);
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void failedTrialReopens() {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, NOW, 4);
+        Assert.assertEquals(CircuitBreaker.TRIAL, breaker.allow(NOW + 1000));
+        breaker.recordTrial(NOW + 1001, NOW + 1000, true, false);
+        Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+        Assert.assertEquals(CircuitBreaker.REJECTED, breaker.allow(NOW + 1500));
+        Assert.assertEquals(CircuitBreaker.TRIAL, breaker.allow(NOW + 2001));
+    }
+
+    @Test
+    public void stragglerDoesNotDecideHalfOpen() {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, NOW, 4);
+        Assert.assertEquals(CircuitBreaker.TRIAL, breaker.allow(NOW + 1000));
+        // CLOSED时放行、晚结束的调用
+        breaker.record(NOW + 1001, false, false);
+        Assert.assertEquals(CircuitBreaker.HALF_OPEN, breaker.getState());
+        breaker.record(NOW + 1001, true, false);
+        Assert.assertEquals(CircuitBreaker.HALF_OPEN, breaker.getState());
+        breaker.recordTrial(NOW + 1002, NOW + 1000, false, false);
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void hungTrialIsReplaced() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, 0, 1000, 3000);
+        fail(breaker, NOW, 4);
+        // 试探调用一直没有结束
+        Assert.assertEquals(CircuitBreaker.TRIAL, breaker.allow(NOW + 1000));
+        Assert.assertEquals(CircuitBreaker.REJECTED, breaker.allow(NOW + 3999));
+        Assert.assertEquals(CircuitBreaker.TRIAL, breaker.allow(NOW + 4000));
+        Assert.assertEquals(CircuitBreaker.REJECTED, breaker.allow(NOW + 4000));
+        // 被放弃的试探晚结束，不影响状态
+        breaker.recordTrial(NOW + 4500, NOW + 1000, true, false);
+        Assert.assertEquals(CircuitBreaker.HALF_OPEN, breaker.getState());
+        breaker.recordTrial(NOW + 4600, NOW + 4000, false, false);
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+        breaker.recordTrial(NOW + 4700, NOW + 1000, true, false);
+        Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenMaxDefaultsToOpenMillis() {
+        CircuitBreaker breaker = breaker();
+        fail(breaker, NOW, 4);
+        Assert.assertEquals(CircuitBreaker.TRIAL, breaker.allow(NOW + 1000));
+        Assert.assertEquals(CircuitBreaker.REJECTED, breaker.allow(NOW + 1999));
+        Assert.assertEquals(CircuitBreaker.TRIAL, breaker.allow(NOW + 2000));
+    }
+
+    @Test
+    public void slowCallsCountAgainstSlowRate() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 0, 50, 1000);
+        breaker.record(NOW, false, false);
+        breaker.record(NOW, false, true);
+        Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+    }
+}
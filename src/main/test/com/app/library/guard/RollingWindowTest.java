@@ -0,0 +1,45 @@
+package com.app.library.guard;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RollingWindowTest {
+
+    @Test
+    public void sumsBucketsInsideWindow() {
+        RollingWindow window = new RollingWindow(3);
+        window.record(10_000, false, false);
+        window.record(10_500, true, false);
+        window.record(11_000, true, true);
+        window.record(12_999, false, true);
+        Assert.assertArrayEquals(new long[]{4, 2, 2}, window.sum(12_999));
+    }
+
+    @Test
+    public void expiresOldBuckets() {
+        RollingWindow window = new RollingWindow(3);
+        window.record(10_000, true, false);
+        window.record(11_000, false, false);
+        // 第13秒时窗口为11-13秒，第10秒的桶已过期
+        Assert.assertArrayEquals(new long[]{1, 0, 0}, window.sum(13_000));
+        Assert.assertArrayEquals(new long[]{0, 0, 0}, window.sum(14_000));
+    }
+
+    @Test
+    public void reusesBucketForNewSecond() {
+        RollingWindow window = new RollingWindow(2);
+        window.record(10_000, true, true);
+        // 第12秒与第10秒落在同一个桶，先重置再记录
+        window.record(12_000, false, false);
+        Assert.assertArrayEquals(new long[]{1, 0, 0}, window.sum(12_000));
+    }
+
+    @Test
+    public void clearResetsAllBuckets() {
+        RollingWindow window = new RollingWindow(5);
+        window.record(10_000, true, true);
+        window.record(11_000, true, true);
+        window.clear();
+        Assert.assertArrayEquals(new long[]{0, 0, 0}, window.sum(11_000));
+    }
+}
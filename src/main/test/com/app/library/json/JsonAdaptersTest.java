@@ -0,0 +1,79 @@
+package com.app.library.json;
+
+import com.app.domain.imput.batch.BatchItemInput;
+import com.app.domain.imput.test.TestInfoInput;
+import com.app.domain.output.BaseOutput;
+import com.app.domain.output.test.TestInfoOutput;
+import com.app.exception.ErrorInfo;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 生成的TypeAdapter与Gson反射的输出必须一致，需要经过注解处理器编译(mvn test)
+ */
+public class JsonAdaptersTest {
+    private static final Gson GENERATED = JsonAdapters.register(new GsonBuilder()).create();
+    private static final Gson REFLECTIVE = new GsonBuilder().create();
+    private static final Gson GENERATED_NULLS = JsonAdapters.register(new GsonBuilder().serializeNulls()).create();
+    private static final Gson REFLECTIVE_NULLS = new GsonBuilder().serializeNulls().create();
+
+    @Test
+    public void registryIsGenerated() throws Exception {
+        Class.forName(JsonAdapters.REGISTRY);
+        Assert.assertTrue(GENERATED.getAdapter(ErrorInfo.class) instanceof GeneratedTypeAdapter);
+    }
+
+    private static void assertSameJson(Object value) {
+        Assert.assertEquals(REFLECTIVE.toJson(value), GENERATED.toJson(value));
+        Assert.assertEquals(REFLECTIVE_NULLS.toJson(value), GENERATED_NULLS.toJson(value));
+    }
+
+    private static <T> void assertSameRead(String json, Class<T> type) {
+        Assert.assertEquals(REFLECTIVE.toJson(REFLECTIVE.fromJson(json, type)),
+                REFLECTIVE.toJson(GENERATED.fromJson(json, type)));
+    }
+
+    @Test
+    public void outputsMatchReflection() {
+        assertSameJson(new TestInfoOutput(true, "中文\"\n<>"));
+        assertSameJson(new TestInfoOutput(false, null));
+        BaseOutput output = new BaseOutput();
+        output.setUuid("uuid-1");
+        assertSameJson(output);
+        assertSameJson(new ErrorInfo("500", "error", "uuid-1"));
+        assertSameJson(new ErrorInfo("500", null));
+        assertSameJson(new ErrorInfo());
+    }
+
+    @Test
+    public void inputsMatchReflection() {
+        assertSameJson(new TestInfoInput(true));
+        assertSameJson(new TestInfoInput());
+        BatchItemInput item = new BatchItemInput();
+        item.setMethod("GET");
+        item.setPath("/test/info");
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("flag", "true");
+        params.put("empty", null);
+        item.setParams(params);
+        item.setBody(new JsonParser().parse("{\"a\":[1,2.5,null,\"x\"]}"));
+        assertSameJson(item);
+        assertSameJson(new BatchItemInput());
+    }
+
+    @Test
+    public void readMatchesReflection() {
+        assertSameRead("{\"flag\":true}", TestInfoInput.class);
+        assertSameRead("{\"flag\":null,\"unknown\":{\"x\":[1]}}", TestInfoInput.class);
+        assertSameRead("{\"method\":\"POST\",\"path\":\"/test/info\",\"params\":{\"a\":\"1\"},\"body\":{\"flag\":false}}",
+                BatchItemInput.class);
+        assertSameRead("{\"success\":\"false\",\"code\":\"400\",\"msg\":\"bad\",\"uuid\":\"u\"}", ErrorInfo.class);
+        assertSameRead("{\"success\":true,\"uuid\":\"u\"}", BaseOutput.class);
+    }
+}
@@ -0,0 +1,152 @@
+package com.app.library.provide;
+
+import com.app.exception.ErrorInfo;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+public class CborWriterTest {
+    private static final Gson GSON = GsonMessageBodyHandler.getGson();
+
+    enum Color {RED, GREEN}
+
+    static class Nested {
+        String name = "nested";
+        int[] values = {1, -1, 24, 255, 256, 65536};
+    }
+
+    static class Sample {
+        String text = "中文 and emoji 😀";
+        String empty = "";
+        String absent = null;
+        String large;
+        int intValue = -123456;
+        long longValue = Long.MAX_VALUE;
+        long minLong = Long.MIN_VALUE;
+        short shortValue = 300;
+        byte byteValue = -8;
+        double doubleValue = 0.1;
+        float floatValue = 1.1f;
+        boolean flag = true;
+        Boolean boxedFlag = Boolean.FALSE;
+        Integer boxedNull = null;
+        char letter = 'x';
+        BigInteger bigInteger = new BigInteger("12345678901234567890");
+        BigInteger maxUnsigned = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        BigInteger minNegative = BigInteger.ONE.shiftLeft(64).negate();
+        BigDecimal bigDecimal = new BigDecimal("3.25");
+        Color color = Color.GREEN;
+        List<String> list = Arrays.asList("a", null, "c");
+        Map<String, Integer> map = new LinkedHashMap<>();
+        Nested nested = new Nested();
+        List<Nested> emptyList = Collections.emptyList();
+
+        Sample() {
+            map.put("one", 1);
+            map.put("big", 1 << 30);
+            char[] chars = new char[3000];
+            Arrays.fill(chars, 'z');
+            large = new String(chars);
+        }
+    }
+
+    private static byte[] toCbor(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CborWriter writer = new CborWriter(out)) {
+            GSON.toJson(value, value.getClass(), writer);
+        }
+        return out.toByteArray();
+    }
+
+    private static JsonElement parse(byte[] bytes) throws IOException {
+        return CborParser.parse(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void everyFieldTypeRoundTrips() throws IOException {
+        Sample sample = new Sample();
+        Sample copy = GSON.fromJson(parse(toCbor(sample)), Sample.class);
+        // 经过CBOR往返后Json输出与直接输出一致
+        Assert.assertEquals(GSON.toJson(sample), GSON.toJson(copy));
+        Assert.assertEquals(Long.MIN_VALUE, copy.minLong);
+        Assert.assertEquals(1.1f, copy.floatValue, 0f);
+        Assert.assertEquals(sample.bigInteger, copy.bigInteger);
+        Assert.assertEquals(sample.maxUnsigned, copy.maxUnsigned);
+        Assert.assertEquals(sample.minNegative, copy.minNegative);
+        Assert.assertNull(copy.absent);
+    }
+
+    @Test
+    public void nullFieldIsOmitted() throws IOException {
+        JsonObject object = parse(toCbor(new Sample())).getAsJsonObject();
+        Assert.assertFalse(object.has("absent"));
+        Assert.assertFalse(object.has("boxedNull"));
+        // 数组中的null保留
+        Assert.assertTrue(object.getAsJsonArray("list").get(1).isJsonNull());
+    }
+
+    @Test
+    public void serializedNameIsUsed() throws IOException {
+        ErrorInfo info = new ErrorInfo("500", "出错了", "uuid-1");
+        JsonObject object = parse(toCbor(info)).getAsJsonObject();
+        Assert.assertEquals("出错了", object.get("msg").getAsString());
+        Assert.assertFalse(object.has("messsage"));
+        ErrorInfo copy = GSON.fromJson(object, ErrorInfo.class);
+        Assert.assertEquals("出错了", copy.getMesssage());
+        Assert.assertEquals("500", copy.getCode());
+        Assert.assertEquals("uuid-1", copy.getUuid());
+        Assert.assertEquals("false", copy.getSuccess());
+    }
+
+    @Test
+    public void jsonValueIsReencoded() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CborWriter writer = new CborWriter(out)) {
+            writer.beginObject().name("raw").jsonValue("{\"a\":[1,2.5,\"x\"]}").endObject();
+        }
+        JsonObject object = parse(out.toByteArray()).getAsJsonObject();
+        Assert.assertEquals("{\"a\":[1,2.5,\"x\"]}", object.get("raw").toString());
+    }
+
+    @Test
+    public void smallIntegersUseShortestHead() throws IOException {
+        Assert.assertArrayEquals(new byte[]{0x17}, toCbor(23));
+        Assert.assertArrayEquals(new byte[]{0x18, 0x18}, toCbor(24));
+        Assert.assertArrayEquals(new byte[]{0x20}, toCbor(-1));
+        Assert.assertArrayEquals(new byte[]{0x19, 0x01, 0x00}, toCbor(256));
+    }
+
+    /**
+     * JsonWriter所有会写出内容的public方法都必须被覆盖，否则会调用到UNUSED而抛出异常
+     */
+    @Test
+    public void overridesEveryWritingMethod() {
+        for (Method method : JsonWriter.class.getDeclaredMethods()) {
+            int modifiers = method.getModifiers();
+            if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers)) {
+                continue;
+            }
+            String name = method.getName();
+            if (name.startsWith("set") || name.startsWith("is") || name.startsWith("get")) {
+                continue;
+            }
+            try {
+                CborWriter.class.getDeclaredMethod(name, method.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                Assert.fail("CborWriter should override " + method);
+            }
+        }
+    }
+}
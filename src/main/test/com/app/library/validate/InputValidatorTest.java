@@ -0,0 +1,120 @@
+package com.app.library.validate;
+
+import com.app.domain.imput.batch.BatchItemInput;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class InputValidatorTest {
+
+    static class Address {
+        @NotBlank
+        String city;
+
+        Address(String city) {
+            this.city = city;
+        }
+    }
+
+    static class Base {
+        @NotNull(message = "id is required")
+        Long id;
+    }
+
+    static class Sample extends Base {
+        @NotBlank
+        @Size(max = 4)
+        String name;
+        @Min(1)
+        @Max(10)
+        int count;
+        @Pattern(regexp = "[a-z]+")
+        String code;
+        @Size(min = 1)
+        List<String> tags;
+        @Valid
+        Address address;
+
+        static Sample valid() {
+            Sample sample = new Sample();
+            sample.id = 1L;
+            sample.name = "ok";
+            sample.count = 5;
+            sample.code = "abc";
+            sample.tags = Collections.singletonList("t");
+            sample.address = new Address("x");
+            return sample;
+        }
+
+        static Sample invalid() {
+            Sample sample = new Sample();
+            sample.name = "too long";
+            sample.count = 11;
+            sample.code = "ABC";
+            sample.tags = Collections.emptyList();
+            sample.address = new Address(" ");
+            return sample;
+        }
+    }
+
+    @Test
+    public void validInputHasNoViolation() {
+        InputValidator validator = InputValidator.of(Sample.class);
+        Assert.assertTrue(validator.validate(Sample.valid(), InputValidator.Mode.FAIL_FAST).isEmpty());
+        Assert.assertTrue(validator.validate(Sample.valid(), InputValidator.Mode.COLLECT_ALL).isEmpty());
+    }
+
+    @Test
+    public void failFastReturnsFirstViolation() {
+        List<String> violations = InputValidator.of(Sample.class).validate(Sample.invalid(), InputValidator.Mode.FAIL_FAST);
+        Assert.assertEquals(Collections.singletonList("name size must be between 0 and 4"), violations);
+    }
+
+    @Test
+    public void collectAllReturnsEveryViolation() {
+        List<String> violations = InputValidator.of(Sample.class).validate(Sample.invalid(), InputValidator.Mode.COLLECT_ALL);
+        // 子类字段在前，父类字段在后，声明的message优先
+        Assert.assertEquals(Arrays.asList(
+                "name size must be between 0 and 4",
+                "count must be less than or equal to 10",
+                "code must match \"[a-z]+\"",
+                "tags size must be between 1 and 2147483647",
+                "address.city must not be blank",
+                "id is required"), violations);
+    }
+
+    @Test
+    public void nullPassesExceptNotNullAndNotBlank() {
+        Sample sample = Sample.valid();
+        sample.code = null;
+        sample.tags = null;
+        sample.address = null;
+        Assert.assertTrue(InputValidator.of(Sample.class).validate(sample, InputValidator.Mode.COLLECT_ALL).isEmpty());
+        sample.name = null;
+        Assert.assertEquals(Collections.singletonList("name must not be blank"),
+                InputValidator.of(Sample.class).validate(sample, InputValidator.Mode.COLLECT_ALL));
+    }
+
+    @Test
+    public void batchItemRequiresPath() {
+        InputValidator validator = InputValidator.of(BatchItemInput.class);
+        BatchItemInput item = new BatchItemInput();
+        item.setPath("/test/info");
+        Assert.assertTrue(validator.validate(item).isEmpty());
+        item.setMethod("get");
+        Assert.assertTrue(validator.validate(item).isEmpty());
+        item.setMethod("TRACE");
+        item.setPath(" ");
+        Assert.assertEquals(Arrays.asList("method must match \"(?i)GET|POST|PUT|DELETE\"", "path must not be blank"),
+                validator.validate(item, InputValidator.Mode.COLLECT_ALL));
+    }
+}
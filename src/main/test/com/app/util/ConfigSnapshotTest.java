@@ -0,0 +1,40 @@
+package com.app.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+
+public class ConfigSnapshotTest {
+
+    private static ConfigSnapshot snapshot(String... pairs) {
+        Properties properties = new Properties();
+        for (int i = 0; i < pairs.length; i += 2) {
+            properties.setProperty(pairs[i], pairs[i + 1]);
+        }
+        return new ConfigSnapshot("test.properties", 1, properties);
+    }
+
+    @Test
+    public void sameKeyReadAsDifferentTypes() {
+        ConfigSnapshot snapshot = snapshot("timeout", "30", "ratio", "1");
+        Assert.assertEquals(30, snapshot.getInt("timeout", 0));
+        Assert.assertEquals(30L, snapshot.getLong("timeout", 0L));
+        Assert.assertEquals(30.0, snapshot.getDouble("timeout", 0.0), 0.0);
+        Assert.assertEquals(1.0, snapshot.getDouble("ratio", 0.0), 0.0);
+        Assert.assertEquals(1, snapshot.getInt("ratio", 0));
+        // 按boolean读取后再按int读取仍是原值
+        Assert.assertFalse(snapshot.getBoolean("timeout", false));
+        Assert.assertEquals(30, snapshot.getInt("timeout", 0));
+    }
+
+    @Test
+    public void invalidOrMissingValueUsesDefault() {
+        ConfigSnapshot snapshot = snapshot("size", "1.5", "empty", " ");
+        Assert.assertEquals(7, snapshot.getInt("size", 7));
+        Assert.assertEquals(1.5, snapshot.getDouble("size", 0.0), 0.0);
+        Assert.assertEquals(3L, snapshot.getLong("empty", 3L));
+        Assert.assertEquals(9L, snapshot.getLong("missing", 9L));
+        Assert.assertEquals(7, snapshot.getInt("size", 7));
+    }
+}
@@ -0,0 +1,82 @@
+package com.app.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class HashUtilTest {
+
+    /**
+     * xxHash64公开的测试向量，seed为0，覆盖不足32字节和按32字节分块两条路径
+     */
+    @Test
+    public void hash64MatchesPublishedVectors() {
+        Assert.assertEquals(0xEF46DB3751D8E999L, HashUtil.hash64(""));
+        Assert.assertEquals(0xD24EC4F1A98C6E5BL, HashUtil.hash64("a"));
+        Assert.assertEquals(0x44BC2CF5AD770999L, HashUtil.hash64("abc"));
+        Assert.assertEquals(0xFBCEA83C8A378BF1L, HashUtil.hash64("Nobody inspects the spammish repetition"));
+    }
+
+    @Test
+    public void hash64WithSeed() {
+        byte[] bytes = "xxhash".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(0xB559B98D844E0635L, HashUtil.hash64(bytes, 0, bytes.length, 20141025));
+    }
+
+    @Test
+    public void hash64UsesOnlyTheGivenRange() {
+        byte[] padded = "--abc--".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(HashUtil.hash64("abc"), HashUtil.hash64(padded, 2, 3, 0));
+        byte[] bytes = new byte[100];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        Assert.assertEquals(0x79C9FA152BB53C71L, HashUtil.hash64(bytes));
+        byte[] shifted = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, shifted, 3, bytes.length);
+        Assert.assertEquals(HashUtil.hash64(bytes), HashUtil.hash64(shifted, 3, bytes.length, 0));
+    }
+
+    @Test
+    public void digestMatchesKnownValues() {
+        Assert.assertEquals("d41d8cd98f00b204e9800998ecf8427e", HashUtil.md5Hex(""));
+        Assert.assertEquals("900150983cd24fb0d6963f7d28e17f72", HashUtil.md5Hex("abc"));
+        Assert.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", HashUtil.sha256Hex("abc"));
+        Assert.assertEquals("900150983CD24FB0D6963F7D28E17F72", CommonUtil.MD5("abc"));
+        // 按UTF-8编码
+        Assert.assertEquals(HashUtil.toHex(HashUtil.digest(HashUtil.Algorithm.MD5, "中文".getBytes(StandardCharsets.UTF_8))),
+                HashUtil.md5Hex("中文"));
+    }
+
+    @Test
+    public void digestSourcesAgree() throws IOException {
+        byte[] bytes = new byte[20000];
+        Arrays.fill(bytes, (byte) 7);
+        byte[] expected = HashUtil.digest(HashUtil.Algorithm.SHA256, bytes);
+        Assert.assertArrayEquals(expected, HashUtil.digest(HashUtil.Algorithm.SHA256, new ByteArrayInputStream(bytes)));
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Assert.assertArrayEquals(expected, HashUtil.digest(HashUtil.Algorithm.SHA256, buffer));
+        Assert.assertEquals(0, buffer.position());
+        // 复用的实例在下一次调用前已reset
+        Assert.assertArrayEquals(expected, HashUtil.digest(HashUtil.Algorithm.SHA256, bytes));
+    }
+
+    @Test
+    public void hexEncoding() {
+        byte[] bytes = {0x00, 0x0F, (byte) 0xA5, (byte) 0xFF};
+        Assert.assertEquals("000fa5ff", HashUtil.toHex(bytes));
+        Assert.assertEquals("000FA5FF", HashUtil.toHex(bytes, true));
+        char[] dest = new char[6];
+        Assert.assertEquals(5, HashUtil.toHex(bytes, 1, 2, dest, 1, false));
+        Assert.assertEquals("\u00000fa5\u0000", new String(dest));
+        char[] longHex = new char[16];
+        Assert.assertEquals(16, HashUtil.toHex(0x00000000ABCDEF01L, longHex, 0));
+        Assert.assertEquals("00000000abcdef01", new String(longHex));
+        Assert.assertEquals("x-ffffffffffffffff", HashUtil.appendHex(new StringBuilder("x-"), -1L).toString());
+    }
+}